@@ -0,0 +1,118 @@
+package org.javen.integration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the Reactor file operations (copy, zip, find, delete) on a generated tree.
+ * The tree size is configurable with the JMH parameters, for instance:
+ * {@code java -jar benchmarks/target/benchmarks.jar FileOperationsBenchmark -p files=10000 -p fileSize=1024}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileOperationsBenchmark {
+
+    @Param({"1000"})
+    public int files;
+
+    @Param({"4096"})
+    public int fileSize;
+
+    private Path workDirectory;
+    private String tree;
+    private String singleFile;
+    private String target;
+    private String archive;
+
+    @Setup(Level.Trial)
+    public void createTree() throws IOException {
+        Fixtures.quietReactor();
+        workDirectory = Files.createTempDirectory("javen-bench");
+        tree = Fixtures.tree(workDirectory.resolve("tree"), files, fileSize).toString();
+        singleFile = Fixtures.tree(workDirectory.resolve("single"), 1, files * fileSize).resolve("file0.java").toString();
+        target = workDirectory.resolve("target").toString();
+        archive = workDirectory.resolve("tree.zip").toString();
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanTarget() {
+        Reactor.delete(target);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTree() {
+        Reactor.delete(workDirectory.toString());
+    }
+
+    @Benchmark
+    public boolean copyTree() {
+        return Reactor.copy(tree, target);
+    }
+
+    @Benchmark
+    public boolean copyTreeWithPredicates() {
+        return Reactor.copy(tree, target, s -> s.endsWith(".java"), s -> s.endsWith(".jar"));
+    }
+
+    @Benchmark
+    public boolean copySingleFile() {
+        return Reactor.copy(singleFile, target + File.separator + "file0.java");
+    }
+
+    @Benchmark
+    public boolean zip() {
+        return Reactor.zip(tree, archive);
+    }
+
+    @Benchmark
+    public List<File> find() {
+        return Reactor.find(tree, s -> s.endsWith(".xml"));
+    }
+
+    /**
+     * a copy of the tree to delete, re-created before each invocation
+     */
+    @State(Scope.Thread)
+    public static class DeleteState {
+        String copy;
+
+        @Setup(Level.Invocation)
+        public void copyTree(FileOperationsBenchmark benchmark) {
+            copy = benchmark.workDirectory.resolve("to-delete").toString();
+            Reactor.copy(benchmark.tree, copy);
+        }
+    }
+
+    @Benchmark
+    public boolean delete(DeleteState state) {
+        return Reactor.delete(state.copy);
+    }
+
+    @Benchmark
+    public boolean deleteMatching(DeleteState state) {
+        Reactor.delete(state.copy, s -> s.endsWith(".properties"));
+        return new File(state.copy).exists();
+    }
+}
@@ -0,0 +1,106 @@
+package org.javen.integration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.logging.Level;
+
+/**
+ * generates the fixture trees the benchmarks run against.
+ * Fixtures are deterministic: the same parameters always give the same tree.
+ */
+final class Fixtures {
+    /**
+     * files per directory, the tree gets deeper as the number of files grows
+     */
+    static final int FILES_PER_DIRECTORY = 32;
+
+    private Fixtures() {
+    }
+
+    /**
+     * silences the Reactor logger, so that the benchmarks do not measure the console output
+     */
+    static void quietReactor() {
+        Reactor.getLogger().setLevel(Level.WARNING);
+    }
+
+    /**
+     * creates a source-like tree: one file out of four is an already compressed .jar (random bytes),
+     * the others are .java, .xml and .properties text files
+     * @param root the directory to create the tree in
+     * @param files the number of files
+     * @param fileSize the size of each file in bytes
+     * @return the root of the tree
+     * @throws IOException if the tree cannot be written
+     */
+    static Path tree(Path root, int files, int fileSize) throws IOException {
+        Random random = new Random(files * 31L + fileSize);
+        String[] extensions = {".java", ".xml", ".properties", ".jar"};
+        byte[] text = text(fileSize);
+        byte[] binary = new byte[fileSize];
+        for (int i = 0; i < files; i++) {
+            Path directory = root;
+            for (int index = i / FILES_PER_DIRECTORY; index > 0; index /= FILES_PER_DIRECTORY) {
+                directory = directory.resolve("dir" + (index % FILES_PER_DIRECTORY));
+            }
+            Files.createDirectories(directory);
+            String extension = extensions[i % extensions.length];
+            byte[] content = text;
+            if (extension.equals(".jar")) {
+                random.nextBytes(binary);
+                content = binary;
+            }
+            Files.write(directory.resolve("file" + i + extension), content);
+        }
+        return root;
+    }
+
+    /**
+     * creates a parent pom and a child pom inheriting its version and properties
+     * @param root the directory to create the poms in
+     * @param properties the number of properties declared by the parent and by the child
+     * @param dependencies the number of dependencies declared by the child
+     * @return the child pom
+     * @throws IOException if the poms cannot be written
+     */
+    static Path poms(Path root, int properties, int dependencies) throws IOException {
+        StringBuilder parent = new StringBuilder();
+        parent.append("<project>\n  <modelVersion>4.0.0</modelVersion>\n")
+                .append("  <groupId>org.javen.bench</groupId>\n  <artifactId>parent</artifactId>\n")
+                .append("  <version>1.2.3</version>\n  <packaging>pom</packaging>\n  <properties>\n");
+        for (int i = 0; i < properties; i++) {
+            parent.append("    <parent.property").append(i).append(">value").append(i).append("</parent.property").append(i).append(">\n");
+        }
+        parent.append("  </properties>\n  <modules>\n    <module>child</module>\n  </modules>\n</project>\n");
+
+        StringBuilder child = new StringBuilder();
+        child.append("<project>\n  <modelVersion>4.0.0</modelVersion>\n  <parent>\n")
+                .append("    <groupId>org.javen.bench</groupId>\n    <artifactId>parent</artifactId>\n    <version>1.2.3</version>\n")
+                .append("  </parent>\n  <artifactId>child</artifactId>\n  <properties>\n");
+        for (int i = 0; i < properties; i++) {
+            child.append("    <child.property").append(i).append(">${parent.property").append(i).append("}-${project.version}</child.property").append(i).append(">\n");
+        }
+        child.append("  </properties>\n  <dependencies>\n");
+        for (int i = 0; i < dependencies; i++) {
+            child.append("    <dependency>\n      <groupId>org.javen.bench</groupId>\n      <artifactId>library").append(i)
+                    .append("</artifactId>\n      <version>${project.version}</version>\n    </dependency>\n");
+        }
+        child.append("  </dependencies>\n</project>\n");
+
+        Files.createDirectories(root.resolve("child"));
+        Files.write(root.resolve("pom.xml"), parent.toString().getBytes(StandardCharsets.UTF_8));
+        return Files.write(root.resolve("child/pom.xml"), child.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] text(int size) {
+        byte[] line = "    public static final String VALUE = \"javen reactor benchmark fixture\";\n".getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = line[i % line.length];
+        }
+        return content;
+    }
+}
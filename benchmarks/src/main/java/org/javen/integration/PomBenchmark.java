@@ -0,0 +1,88 @@
+package org.javen.integration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks of the pom reading: version extraction and effective properties of a child pom inheriting from its parent.
+ * The {@code cached} benchmarks read poms which did not change, the {@code parsed} ones touch the child pom
+ * before each read so that it is parsed and resolved again (the cost of the touch is included).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PomBenchmark {
+
+    @Param({"50"})
+    public int properties;
+
+    @Param({"20"})
+    public int dependencies;
+
+    private Path workDirectory;
+    private Path childPom;
+    private String childPomPath;
+    private long lastModified;
+
+    @Setup(Level.Trial)
+    public void createPoms() throws IOException {
+        Fixtures.quietReactor();
+        workDirectory = Files.createTempDirectory("javen-bench");
+        childPom = Fixtures.poms(workDirectory, properties, dependencies);
+        childPomPath = childPom.toString();
+        lastModified = Files.getLastModifiedTime(childPom).toMillis();
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePoms() {
+        Reactor.delete(workDirectory.toString());
+    }
+
+    private void touch() throws IOException {
+        lastModified += 1000;
+        Files.setLastModifiedTime(childPom, FileTime.fromMillis(lastModified));
+    }
+
+    @Benchmark
+    public String extractVersionCached() throws IOException {
+        return Reactor.EffectivePom.resolve(childPomPath).version;
+    }
+
+    @Benchmark
+    public String extractVersionParsed() throws IOException {
+        touch();
+        return Reactor.EffectivePom.resolve(childPomPath).version;
+    }
+
+    @Benchmark
+    public Map<String, String> projectPropertiesCached() {
+        return Reactor.mvn.mvnProjectProperties(childPomPath);
+    }
+
+    @Benchmark
+    public Map<String, String> projectPropertiesParsed() throws IOException {
+        touch();
+        return Reactor.mvn.mvnProjectProperties(childPomPath);
+    }
+}
@@ -2,38 +2,124 @@ package org.javen.integration;
 
 
 import java.io.File;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.function.Predicate;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
+import org.apache.maven.shared.invoker.CommandLineConfigurationException;
 import org.apache.maven.shared.invoker.DefaultInvocationRequest;
-import org.apache.maven.shared.invoker.DefaultInvoker;
 import org.apache.maven.shared.invoker.InvocationRequest;
 import org.apache.maven.shared.invoker.InvocationResult;
-import org.apache.maven.shared.invoker.Invoker;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.MavenCommandLineBuilder;
 import org.apache.maven.shared.invoker.MavenInvocationException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.Commandline;
 
 
 /**
@@ -47,8 +133,8 @@ public class Reactor {
 
     public static final String FRONT_END_PLUGIN = "com.github.eirslett:frontend-maven-plugin:1.10.0";
 
-    private static final List<String> failedCommands = new ArrayList<>();
-    private static final List<String> successFullCommands = new ArrayList<>();
+    private static final ResultRegistry results = new ResultRegistry(Integer.getInteger("javen.results.capacity", 100_000));
+    private static final List<MojoTiming> mojoTimings = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * quiet option to pass to maven CLI
@@ -67,8 +153,43 @@ public class Reactor {
 
     private static final Logger LOGGER = Logger.getLogger("Reactor");
 
-    private static final Invoker invoker = new DefaultInvoker();
+    private static final String TRASH_SUFFIX = ".javen-trash-";
+    private static final ExecutorService trashPurger = Executors.newSingleThreadExecutor(ReactorThreads.daemonThreads("javen-trash-purger"));
+    private static final List<Future<Boolean>> backgroundDeletes = new ArrayList<>();
+    private static final Set<Path> purgingTrash = ConcurrentHashMap.newKeySet();
+
+    private static volatile Executor asyncExecutor;
+
+    private static final Map<Path, FileIndex> indexes = new ConcurrentHashMap<>();
+    private static final Set<MvnInvocation> runningInvocations = ConcurrentHashMap.newKeySet();
+    private static volatile ResourceController resourceController;
+
+
+    /**
+     * sets the executor running the asynchronous operations ({@link MvnExecutor#executeAsync(String)}, {@link #copyAsync(String, String)},
+     * {@link #zipAsync(String, String)}...): its size bounds how many of them run concurrently.
+     * @param executor the executor, null to go back to the default one
+     */
+    public static void asyncExecutor(Executor executor) {
+        asyncExecutor = executor;
+    }
 
+    /**
+     * @return the executor running the asynchronous operations, by default a pool of daemon threads sized on the available processors
+     * (at least 2, maven invocations being mostly spent waiting for their process), or a virtual thread per operation on Java 21
+     */
+    public static Executor asyncExecutor() {
+        Executor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (Reactor.class) {
+                if (asyncExecutor == null) {
+                    asyncExecutor = ReactorThreads.newBlockingExecutor("javen-async", Math.max(2, Runtime.getRuntime().availableProcessors()));
+                }
+                executor = asyncExecutor;
+            }
+        }
+        return executor;
+    }
 
     private static String mvnCliParam(String parameter, String... value) {
         return "-D" + parameter + (value == null || value.length == 0 ? "" : "=" + value[0]);
@@ -79,6 +200,34 @@ public class Reactor {
     }
 
 
+    /**
+     * looks for an executable in the bin directory of a home environment variable, then in the PATH
+     * @return the executable file, or null if not found
+     */
+    static File findExecutable(String homeVariable, String name) {
+        List<String> candidates = listOf(name, name + ".cmd", name + ".exe");
+        List<File> directories = new ArrayList<>();
+        String home = System.getenv(homeVariable);
+        if (home != null) {
+            directories.add(new File(home, "bin"));
+        }
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                directories.add(new File(directory));
+            }
+        }
+        for (File directory : directories) {
+            for (String candidate : candidates) {
+                File executable = new File(directory, candidate);
+                if (executable.isFile() && executable.canExecute()) {
+                    return executable;
+                }
+            }
+        }
+        return null;
+    }
+
     public static boolean createDirs(String path) {
         return new File(path).mkdirs();
     }
@@ -92,629 +241,6192 @@ public class Reactor {
      * @return true if the command succeeded
      */
     public static boolean zip(String origin, String target) {
-
-        try (FileOutputStream fos = new FileOutputStream(target);) {
-            ZipOutputStream zipOut = new ZipOutputStream(fos);
-            File fileToZip = new File(origin);
-
-            zipFile(fileToZip, fileToZip.getName(), zipOut, 0);
-            zipOut.close();
-            fos.close();
-        } catch (IOException e) {
-            LOGGER.throwing("Reactor", "zip", e);
-            failedCommands.add("zip : " + origin + " --> " + target);
-            return false;
-        }
-        return true;
-
+        return zip(origin, target, Deflater.DEFAULT_COMPRESSION);
     }
 
-    //credits : https://www.baeldung.com/java-compress-and-uncompress
-    private static void zipFile(File fileToZip, String fileName, ZipOutputStream zipOut, int level) throws IOException {
-        if (fileToZip.isHidden()) {
-            return;
-        }
-        if (fileToZip.isDirectory()) {
-            if (level != 0) {
-                if (fileName.endsWith("/")) {
-                    zipOut.putNextEntry(new ZipEntry(fileName));
-                    zipOut.closeEntry();
-                } else {
-                    zipOut.putNextEntry(new ZipEntry(fileName + "/"));
-                    zipOut.closeEntry();
-                }
-                fileName = fileName + "/";
-            } else {
-                fileName = "";
-            }
-            File[] children = fileToZip.listFiles();
-            for (File childFile : children) {
-                zipFile(childFile, fileName + childFile.getName(), zipOut, ++level);
-            }
-            return;
-        }
-        FileInputStream fis = new FileInputStream(fileToZip);
-        ZipEntry zipEntry = new ZipEntry(fileName);
-        zipOut.putNextEntry(zipEntry);
-        byte[] bytes = new byte[1024];
-        int length;
-        while ((length = fis.read(bytes)) >= 0) {
-            zipOut.write(bytes, 0, length);
-        }
-        fis.close();
+    /**
+     * zips a folder, compressing the entries on several threads.
+     * Already compressed content (archives, images, ...) is stored instead of being deflated again.
+     * Hidden files are skipped, {@link #prepareZip(String)} keeps them and assembles several folders.
+     *
+     * @param origin the folder to zip
+     * @param target the target name (should be a file)
+     * @param compressionLevel the deflate level, from 0 (no compression) to 9 (best compression)
+     * @return true if the command succeeded
+     */
+    public static boolean zip(String origin, String target, int compressionLevel) {
+        return zipResult(origin, target, compressionLevel).succeeded();
     }
 
     /**
-     * Move origin to target
+     * zips a folder on the {@link #asyncExecutor()}
      *
-     * @param origin the file to be moved (can be a directory)
-     * @param target the target file
-     * @return true if operation succeedd
+     * @param origin the folder to zip
+     * @param target the target name (should be a file)
+     * @return the future result of the zip
      */
-    public static boolean move(String origin, String target) {
-        try {
-            Files.move(new File(origin).toPath(), new File(target).toPath(), StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
-        return true;
+    public static CompletableFuture<Result> zipAsync(String origin, String target) {
+        return CompletableFuture.supplyAsync(() -> zipResult(origin, target, Deflater.DEFAULT_COMPRESSION), asyncExecutor());
     }
 
-
-    private static void outputSection(String message) {
-        System.out.println();
-        System.out.println();
-        System.out.println("##########################################################################################");
-        System.out.println(message);
-        System.out.println("##########################################################################################");
-        System.out.println();
-        System.out.println();
+    private static Result zipResult(String origin, String target, int compressionLevel) {
+        return prepareZip(target)
+                .add(origin, "")
+                .exclude(path -> new File(path).isHidden())
+                .level(compressionLevel)
+                .run();
     }
 
-
     /**
-     * copy origin to target
-     * @param origin file (can be a file or a directory) to be copied
-     * @param target file (can be a file or a directory)
-     * @return true if the copy has been successful
+     * prepares an archive assembled from several files or directories, to be configured then executed
+     * @param target the archive to write (should be a file), unused when the archive is written by {@link ZipOperation#writeTo(WritableByteChannel)}
+     * @return an instance of ZipOperation
      */
-    public static boolean copy(String origin, String target) {
-        return copy(origin, target, s -> true, s -> false);
+    public static ZipOperation prepareZip(String target) {
+        return new ZipOperation(target);
     }
 
     /**
-     * find some files matching file name criteria
-     *
-     * @param origin the base path from which to search for files
-     * @param matchCriteria the criteria to retain files
-     * @return a list of files matching the criteria given as parameters
+     * represents an archive assembled from several sources, each one mapped to a path of the archive.
+     * Sources are selected with the same include and exclude predicates as {@link CopyOperation} (predicates receive the full path of the source),
+     * hidden files included. The entries are compressed by the {@link ZipEngine} and streamed to a file or to any channel,
+     * Zip64 records being written when the archive exceeds the limits of the zip format (4 GB, 65535 entries).
      */
-    public static List<File> find(String origin, Predicate<String> matchCriteria) {
-        List<File> result = new ArrayList<>();
-        File origingFile = new File(origin);
-        if (origingFile.isFile()) {
-            logInfo("find command run with a file, try with a folder exiting...");
-            failedCommands.add("find : on " + origin + "(called with a file, not a folder)");
-            return result;
+    public static class ZipOperation {
+        final String target;
+        final List<ZipSource> roots = new ArrayList<>();
+        Predicate<String> includePredicate;
+        Predicate<String> excludePredicate;
+        int level = Deflater.DEFAULT_COMPRESSION;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long files;
+        long bytes;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        ZipOperation(String target) {
+            this.target = target;
         }
-        try {
-            result = Files.walk(origingFile.toPath())
-                    .filter(p -> matchCriteria.test(p.getFileName().toString()))
-                    .map(Path::toFile)
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            logError("error while walking through directory structure", "find", e);
+
+        /**
+         * adds a file, or a directory under its own name, at the root of the archive
+         */
+        public ZipOperation add(String origin) {
+            return add(origin, new File(origin).getName());
         }
-        return result;
 
+        /**
+         * @param origin a file or a directory
+         * @param path the path of the origin in the archive: the directory receiving the content of a directory ("" for the root),
+         *             the entry name of a file (a name ending with / keeps the name of the file)
+         */
+        public ZipOperation add(String origin, String path) {
+            roots.add(new ZipSource(new File(origin), path.replace('\\', '/')));
+            return this;
+        }
 
-    }
+        public ZipOperation include(Predicate<String> includePredicate) {
+            this.includePredicate = includePredicate;
+            return this;
+        }
 
-    /**
-     * Deletes a folder or a directory.
-     * If the folder path is exactly same as the current execution path, then the operation is rejected
-     * TODO improve
-     *
-     * @param path the path to be deleted
-     * @return true if operation succeeded
-     */
-    public static boolean delete(String path) {
-        String execHome = System.getProperty("user.dir");
-        File target = new File(path);
-        if (target.getAbsolutePath().equals(new File(execHome).getAbsolutePath())) {
-            logInfo("rejecting the delete operation, trying to delete the whole project directory");
-            return false;
+        public ZipOperation exclude(Predicate<String> excludePredicate) {
+            this.excludePredicate = excludePredicate;
+            return this;
         }
-        if (target.isDirectory()) {
-            return deleteDirectory(target);
-        } else {
-            return target.delete();
+
+        /**
+         * @param level the deflate level, from 0 (no compression) to 9 (best compression)
+         */
+        public ZipOperation level(int level) {
+            this.level = level;
+            return this;
         }
-    }
 
-    private static boolean deleteDirectory(File directoryToBeDeleted) {
-        File[] allContents = directoryToBeDeleted.listFiles();
-        if (allContents != null) {
-            for (File file : allContents) {
-                deleteDirectory(file);
-            }
+        public ZipOperation threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
         }
-        return directoryToBeDeleted.delete();
-    }
 
-    /**
-     * deletes files based on the given criteria
-     * @param path the base path to trigger the delete operation
-     * @param matchCriteria the matching criteria to retain files
-     */
-    public static void delete(String path, Predicate<String> matchCriteria) {
-        final File fileDirectory = new File(path);
-        List<File> result = new ArrayList<>();
-        try {
-            Files.walk(fileDirectory.toPath())
-                    .filter(p -> matchCriteria.test(p.getFileName().toString()))
-                    .map(Path::toFile)
-                    .forEach(f -> Reactor.delete(f.getAbsolutePath()));
-        } catch (final Exception e) {
-            logError("error while walking through directory structure", "delete", e);
+        /**
+         * @return the number of entries written by the last execution
+         */
+        public long files() {
+            return files;
         }
 
-    }
+        /**
+         * @return the size of the archive written by the last execution
+         */
+        public long bytes() {
+            return bytes;
+        }
 
+        /**
+         * writes the archive to the target file
+         * @return true if the archive has been written
+         */
+        public boolean execute() {
+            return run().succeeded();
+        }
 
-    /**
-     * nested class to represent Maven Related Operations
-     */
-    public static class mvn {
         /**
-         * runs a maven execution parameterized to execute the maven-dependency-plugin:copy-dependencies
-         *
-         * @param pomFilePath the target maven project file
-         * @return true if operation succeeded
+         * writes the archive to the target file on the {@link #asyncExecutor()}
+         * @return the future result of the zip
          */
-        public static boolean copyDependencies(String pomFilePath) {
-            logInfo("materializing dependencies for project : " + pomFilePath);
-            return mvn.run("materializing dependencies for project : " + pomFilePath, mvnCliPomFile(pomFilePath), " org.apache.maven.plugins:maven-dependency-plugin:3.1.2:copy-dependencies");
+        public CompletableFuture<Result> executeAsync() {
+            return CompletableFuture.supplyAsync(this::run, asyncExecutor());
         }
 
         /**
-         * reads the current project version, target pom file is defined by pomFilePath
-         *
-         * @param pomFilePath project to read
-         * @return a String containing the version
+         * streams the archive to a channel (a socket, a pipe, an upload...), which is left open
+         * @return the result of the zip
          */
-        public static String projectversion(String pomFilePath) {
-            String version = "";
-            try {
-                version = extractVersion(pomFilePath);
+        public Result writeTo(WritableByteChannel channel) {
+            return write(() -> channel, false, "channel");
+        }
 
-            } catch (Exception e) {
-                logError("problem reading the version", "mvnProjectVersion", e);
+        Result run() {
+            File targetFile = new File(target);
+            File parent = targetFile.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
             }
-            return version;
+            return write(() -> FileChannel.open(targetFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), true, target);
         }
 
         /**
-         * reads the current project version, target pom file is defined by pomFilePath
-         *
-         * @param pomFilePath project to read
-         * @return a String containing the version
+         * @param owned true when the channel is opened for this archive and closed with it, false for a channel of the caller
          */
-        public static String projectArtifactId(String pomFilePath) {
-            String version = "";
+        private Result write(ChannelSupplier channelSupplier, boolean owned, String targetName) {
+            lock.lock();
             try {
-                version = extractArtifactId(pomFilePath);
-
-            } catch (Exception e) {
-                logError("problem reading the version", "mvnProjectVersion", e);
+                return zip(channelSupplier, owned, targetName);
+            } finally {
+                lock.unlock();
             }
-            return version;
         }
 
-
-        public static boolean run(String message, String... arguments) {
-            outputSection(message);
-
-            InvocationRequest request = new DefaultInvocationRequest();
-            request.setJavaHome(new File(System.getProperty("java.home")));
-            List<String> argumentsList = new ArrayList<String>(Arrays.asList(arguments));
-            System.out.println(argumentsList);
-            //argumentsList.add(0, "-q");
-            request.setGoals(argumentsList);
+        private Result zip(ChannelSupplier channelSupplier, boolean owned, String targetName) {
+            String origins = roots.stream().map(root -> root.file.getPath()).collect(Collectors.joining(", "));
+            String message = "zip : " + origins + " --> " + targetName;
+            long start = System.currentTimeMillis();
+            List<ZipSource> sources = sources();
+            files = sources.size();
+            Trace trace = Trace.begin(Trace.Operation.ZIP, origins).target(targetName).files(files);
+            ZipEngine engine = new ZipEngine().level(level).threads(threads);
+            WritableByteChannel channel = null;
             try {
-                InvocationResult result = invoker.execute(request);
-                if (result.getExecutionException() != null || result.getExitCode() != 0) {
-                    failedCommands.add(message);
-                    return false;
-                } else {
-                    successFullCommands.add(message);
+                channel = channelSupplier.open();
+                engine.write(sources, channel);
+                if (owned) {
+                    channel.close();
                 }
-            } catch (MavenInvocationException e) {
-                LOGGER.throwing(Reactor.class.getName(), "mvn()", e);
-                failedCommands.add(message);
-                return false;
+            } catch (IOException e) {
+                LOGGER.throwing("Reactor", "zip", e);
+                if (owned) {
+                    closeQuietly(channel);
+                }
+                Result result = new Result(Result.Type.ZIP, "", message, Status.KO, start, System.currentTimeMillis(), e.toString());
+                results.add(result);
+                trace.end(false);
+                return result;
             }
-
-            return true;
+            bytes = engine.archiveSize;
+            trace.bytes(bytes).end(true);
+            return new Result(Result.Type.ZIP, "", message, Status.OK, start, System.currentTimeMillis(), "");
         }
 
-        /**
-         * operate a javadoc-jar goal on the targetted project
-         * @param pomFilePath the project file path
-         * @param options supplemental options
-         */
-        public static void javadocJar(String pomFilePath, String... options) {
-            mvn.run("building javadoc jar  for " + pomFilePath, "-f " + pomFilePath, processOptions(options), "generate-sources javadoc:jar");
-
+        private static void closeQuietly(WritableByteChannel channel) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOGGER.throwing("Reactor", "zip", e);
+                }
+            }
         }
 
         /**
-         * reads the current project properties, target pom file is defined by pomFilePath
-         *
-         * @param pomFilePath project to read
-         * @return a map containing the project parameters
+         * @return the entries of the archive, in order, the first source winning when two of them map to the same entry
          */
-        public static Map<String, String> mvnProjectProperties(String pomFilePath) {
-            Map<String, String> resultMap = new LinkedHashMap<>();
-            try {
-                Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pomFilePath);
-                NodeList properties = doc.getElementsByTagName("properties").item(0).getChildNodes();
-                for (int i = 0; i < properties.getLength(); i++) {
-                    Node item = properties.item(0);
-                    resultMap.put(item.getNodeName(), item.getTextContent().trim());
+        List<ZipSource> sources() {
+            List<ZipSource> sources = new ArrayList<>();
+            Set<String> names = new HashSet<>();
+            for (ZipSource root : roots) {
+                if (root.file.isDirectory()) {
+                    String prefix = root.name.isEmpty() || root.name.endsWith("/") ? root.name : root.name + "/";
+                    addDirectories(root.file, prefix, sources, names);
+                    collect(root.file, prefix, sources, names);
+                } else if (root.file.isFile()) {
+                    String name = root.name.isEmpty() || root.name.endsWith("/") ? root.name + root.file.getName() : root.name;
+                    addDirectories(root.file.getParentFile(), name.substring(0, name.lastIndexOf('/') + 1), sources, names);
+                    add(new ZipSource(root.file, name), sources, names);
+                } else {
+                    LOGGER.warning("zip : " + root.file + " does not exist");
+                }
+            }
+            return sources;
+        }
 
+        private void collect(File directory, String prefix, List<ZipSource> sources, Set<String> names) {
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                boolean selected = selected(child.getPath(), includePredicate, excludePredicate);
+                if (child.isDirectory()) {
+                    // like a copy, a directory left out may still hold selected files
+                    String name = prefix + child.getName() + "/";
+                    if (selected) {
+                        add(new ZipSource(child, name), sources, names);
+                    }
+                    collect(child, name, sources, names);
+                } else if (selected) {
+                    add(new ZipSource(child, prefix + child.getName()), sources, names);
                 }
-            } catch (Exception e) {
-                logError("problem reading the properties", "mvnProjectProperties", e);
             }
-            return resultMap;
         }
 
         /**
-         * creates a maven project representation from a directory
-         * @param projectDir the directory containing a maven project
-         * @return an instance of MvnProject
+         * adds the entries of the directories of a mapped path, "lib/" and "lib/ext/" for "lib/ext/"
          */
-        public static MvnProject project(String projectDir) {
-            return new MvnProject(projectDir);
+        private static void addDirectories(File directory, String path, List<ZipSource> sources, Set<String> names) {
+            for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+                add(new ZipSource(directory, path.substring(0, slash + 1)), sources, names);
+            }
         }
 
-        /**
-         * triggers a "javadoc:javadoc" goal on the targeted project
-         * @param pomFilePath the pom.xml file representing the maven project
-         * @param options supplemental options
-         */
-        public static void javadoc(String pomFilePath, String... options) {
+        private static void add(ZipSource source, List<ZipSource> sources, Set<String> names) {
+            if (names.add(source.name)) {
+                sources.add(source);
+            } else if (!source.isDirectory()) {
+                LOGGER.fine("zip : " + source.file + " skipped, " + source.name + " is already in the archive");
+            }
+        }
+    }
 
-            mvn.run("building javadoc folder (apidoc) for " + pomFilePath, "-f " + pomFilePath, processOptions(options), "generate-sources javadoc:javadoc");
+    /**
+     * opens the channel receiving an archive
+     */
+    interface ChannelSupplier {
+        WritableByteChannel open() throws IOException;
+    }
 
+    /**
+     * a file or a directory to be written in an archive under a given entry name
+     */
+    static class ZipSource {
+        final File file;
+        final String name;
+
+        ZipSource(File file, String name) {
+            this.file = file;
+            this.name = name;
         }
 
-        /**
-         * triggers a "source:jar" goal on the targeted project
-         * @param pomFilePath the pom.xml file representing the maven project
-         * @param options supplemental options
-         */
-        public static void sourcesJar(String pomFilePath, String... options) {
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
 
-            String optionAsString = processOptions(options);
-            mvn.run("building sources jar for " + pomFilePath, "-f " + pomFilePath, optionAsString, "generate-sources source:jar");
+    /**
+     * writes zip archives, deflating the entries in parallel and writing them in order.
+     * Small entries are compressed in memory, bigger ones are spilled to temporary files so that memory stays bounded.
+     * Entries whose content is already compressed are stored.
+     */
+    static class ZipEngine {
+        static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+                "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "zst",
+                "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4", "avi", "mkv", "woff", "woff2", "pdf"));
+        static final int BUFFER_SIZE = 1024 * 1024;
+
+        int level = Deflater.DEFAULT_COMPRESSION;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long inMemoryLimit = 8 * 1024 * 1024;
+        long archiveSize;
+        private final Set<Path> spills = ConcurrentHashMap.newKeySet();
+        private volatile boolean aborted;
 
+        ZipEngine level(int level) {
+            this.level = level;
+            return this;
         }
 
-        private static String processOptions(String[] options) {
-            if (options == null) {
-                return "";
-            }
-            String optionAsString = "";
-            for (String s : options) {
-                optionAsString += " " + s;
-            }
-            return optionAsString;
+        ZipEngine threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
         }
 
-    }
-
-
-    private static String extractVersion(String pomFilePath) throws SAXException, IOException, ParserConfigurationException {
-        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pomFilePath);
-
-        Node parent = null;
-        String version = "";
+        void write(List<ZipSource> sources, WritableByteChannel channel) throws IOException {
+            ZipWriter writer = new ZipWriter(channel);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            Deque<Future<CompressedEntry>> window = new ArrayDeque<>();
+            Iterator<ZipSource> iterator = sources.iterator();
+            int maxInFlight = threads * 2;
+            try {
+                while (iterator.hasNext() || !window.isEmpty()) {
+                    while (iterator.hasNext() && window.size() < maxInFlight) {
+                        ZipSource source = iterator.next();
+                        window.add(pool.submit(() -> compress(source)));
+                    }
+                    writer.write(awaitEntry(window.poll()));
+                }
+                writer.finish();
+                archiveSize = writer.offset;
+            } finally {
+                aborted = !window.isEmpty();
+                for (Future<CompressedEntry> pending : window) {
+                    pending.cancel(true);
+                }
+                pool.shutdownNow();
+                if (aborted) {
+                    deleteSpills(pool);
+                }
+            }
+        }
 
-        NodeList directChildren = doc.getDocumentElement().getChildNodes();
-        for (int i = 0; i < directChildren.getLength(); i++) {
-            Node item = directChildren.item(i);
-            if (item.getNodeName().equals("version")) {
-                version = item.getTextContent().trim();
+        /**
+         * deletes the spill files of an aborted archive once the workers stopped; a worker still running after the
+         * grace delay deletes its own spill file when it sees the abort
+         */
+        private void deleteSpills(ExecutorService pool) {
+            try {
+                pool.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            if (item.getNodeName().equals("parent")) {
-                parent = item;
+            for (Path spill : spills) {
+                try {
+                    Files.deleteIfExists(spill);
+                } catch (IOException e) {
+                    LOGGER.throwing("Reactor", "zip", e);
+                }
             }
         }
-        if (version == null && parent != null) {
-            Element element = (Element) parent;
-            version = element.getElementsByTagName("version").item(0).getTextContent().trim();
-        }
-        return version;
-    }
 
-    private static String extractArtifactId(String pomFilePath) throws SAXException, IOException, ParserConfigurationException {
-        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(pomFilePath);
-
-        String artifactId = "";
-
-        NodeList directChildren = doc.getDocumentElement().getChildNodes();
-        for (int i = 0; i < directChildren.getLength(); i++) {
-            Node item = directChildren.item(i);
-            if (item.getNodeName().equals("artifactId")) {
-                artifactId = item.getTextContent().trim();
+        private static CompressedEntry awaitEntry(Future<CompressedEntry> future) throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while compressing", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
             }
         }
 
-        return artifactId;
-    }
-
-
-
-    /**
-     * Copy files from an origin to a target with inclusions and exclusions based on the file name
-     * @param origin the path to copy from
-     * @param target the path to copy to
-     * @param includePredicate a lambda expression to keep files to copy
-     * @param excludePredicate a lambda expression to exclude files from copy
-     * @return true if the copy succeeded
-     */
-    public static boolean copy(String origin, String target, Predicate<String> includePredicate, Predicate<String> excludePredicate) {
-        File originFile = new File(origin);
-        File targetFile = new File(target);
-        boolean inpredicate = includePredicate != null;
-        boolean expredicate = excludePredicate != null;
+        CompressedEntry compress(ZipSource source) throws IOException {
+            CompressedEntry entry = new CompressedEntry(source.name, source.file.lastModified());
+            if (source.isDirectory()) {
+                return entry;
+            }
+            Path path = source.file.toPath();
+            entry.size = Files.size(path);
+            boolean store = level == 0 || isCompressed(source.name);
+            if (entry.size <= inMemoryLimit) {
+                byte[] content = Files.readAllBytes(path);
+                entry.size = content.length;
+                entry.crc = crc(content);
+                byte[] deflated = store ? null : deflate(content);
+                if (deflated != null && deflated.length < content.length) {
+                    entry.method = ZipEntry.DEFLATED;
+                    entry.data = deflated;
+                } else {
+                    entry.data = content;
+                }
+                entry.compressedSize = entry.data.length;
+                return entry;
+            }
+            if (!store) {
+                deflateToSpill(path, entry);
+                if (aborted) {
+                    entry.deleteSpill();
+                    throw new IOException("zip aborted");
+                }
+                if (entry.compressedSize < entry.size) {
+                    return entry;
+                }
+                entry.deleteSpill();
+                entry.method = ZipEntry.STORED;
+            }
+            entry.crc = crc(path);
+            entry.source = path;
+            entry.compressedSize = entry.size;
+            return entry;
+        }
 
-        try {
+        static boolean isCompressed(String name) {
+            int dot = name.lastIndexOf('.');
+            return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
+        }
 
-            Path originPath = originFile.toPath();
-            final Path targetPath = targetFile.toPath();
-            if (originFile.isFile()) {
-                Path fileTargetPath = targetPath;
-                if (targetFile.isDirectory()) {
-                    fileTargetPath = targetPath.resolve(originPath.getFileName());
+        private byte[] deflate(byte[] content) {
+            Deflater deflater = new Deflater(level, true);
+            try {
+                deflater.setInput(content);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+                byte[] buffer = new byte[64 * 1024];
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    out.write(buffer, 0, length);
                 }
-                Files.copy(originPath, fileTargetPath, StandardCopyOption.REPLACE_EXISTING);
+                return out.toByteArray();
+            } finally {
+                deflater.end();
             }
-            if (originFile.isDirectory()) {
-                try (Stream<Path> stream = Files.walk(originPath)) {
-                    stream.forEach(source -> {
-                        // System.out.println("copy :" + source);
-                        try {
-                            if ((inpredicate && includePredicate.test(source.toString())) ||
-                                    (expredicate && !excludePredicate.test(source.toString()))) {
-                                LOGGER.finer("copying : " + source.getFileName() + " to " + target);
-                                if (targetFile.isDirectory()) {
-                                    Path relativize = originPath.relativize(source); //fix: keep directory hierarchy
-                                    Files.copy(source, targetPath.resolve(relativize), StandardCopyOption.REPLACE_EXISTING);
-                                } else {
-                                    Files.copy(originPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
-                                }
+        }
 
-                            }
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                    });
+        private void deflateToSpill(Path path, CompressedEntry entry) throws IOException {
+            entry.spill = Files.createTempFile("javen-zip", ".deflated");
+            spills.add(entry.spill);
+            entry.method = ZipEntry.DEFLATED;
+            Deflater deflater = new Deflater(level, true);
+            CRC32 crc = new CRC32();
+            byte[] input = new byte[BUFFER_SIZE];
+            byte[] output = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(path);
+                 OutputStream out = Files.newOutputStream(entry.spill)) {
+                int length;
+                while ((length = in.read(input)) >= 0) {
+                    crc.update(input, 0, length);
+                    deflater.setInput(input, 0, length);
+                    while (!deflater.needsInput()) {
+                        out.write(output, 0, deflater.deflate(output));
+                    }
+                }
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out.write(output, 0, deflater.deflate(output));
                 }
+                entry.crc = crc.getValue();
+                entry.size = deflater.getBytesRead();
+                entry.compressedSize = deflater.getBytesWritten();
+            } catch (IOException | RuntimeException e) {
+                entry.deleteSpill();
+                throw e;
+            } finally {
+                deflater.end();
             }
-        } catch (IOException e) {
-            LOGGER.throwing("Reactor", "copy", e);
-            failedCommands.add("copy : " + origin + " --> " + target);
-            return false;
         }
 
-        return true;
-    }
-
-
-    /**
-     * logs a message in info using the Reactor logger
-     * @param message
-     */
-    public static void logInfo(String message) {
-        LOGGER.info(message);
-    }
+        private static long crc(byte[] content) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            return crc.getValue();
+        }
 
-    /**
-     * Logs an error using the Reactor logger
-     * @param message
-     * @param method
-     * @param throwable
-     */
-    public static void logError(String message, String method, Throwable throwable) {
-        LOGGER.severe(message + " : " + throwable.getMessage());
-        LOGGER.throwing(message, method, throwable);
+        private static long crc(Path path) throws IOException {
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(path)) {
+                int length;
+                while ((length = in.read(buffer)) >= 0) {
+                    crc.update(buffer, 0, length);
+                }
+            }
+            return crc.getValue();
+        }
     }
 
-
     /**
-     * gets the Reactor Logger
-     * @return an instance of JUL Logger
-     */
-    public static Logger getLogger() {
-        return LOGGER;
-    }
-
-
-    /** Utility method to avoid using Arrays to get a list of element
-     *
-     * @param elements elements to convert to a list
-     * @param <T> the type of an element of that list
-     * @return a java.util.List of elements
+     * an entry ready to be written: its data is either in memory, in a spill file or read from its source file
      */
-    public static <T> List<T> listOf(T... elements) {
-        return new ArrayList<>(Arrays.asList(elements));
-
-    }
+    static class CompressedEntry {
+        final String name;
+        final long time;
+        int method = ZipEntry.STORED;
+        long crc;
+        long size;
+        long compressedSize;
+        byte[] data;
+        Path spill;
+        Path source;
 
+        CompressedEntry(String name, long time) {
+            this.name = name;
+            this.time = time;
+        }
 
-    /**
-     * prints the summary of the integration operation
-     */
-    public static void printSummary() {
-        outputSection("Build Summary");
-        System.out.println("Successful commands :");
-        for (String s : successFullCommands) {
-            System.out.println("OK -> " + s);
+        boolean isDirectory() {
+            return name.endsWith("/");
         }
-        System.out.println();
-        System.out.println("Failed  commands :");
-        for (String s : failedCommands) {
-            System.out.println("KO -> " + s);
+
+        void deleteSpill() {
+            if (spill != null) {
+                try {
+                    Files.deleteIfExists(spill);
+                } catch (IOException e) {
+                    LOGGER.throwing("Reactor", "zip", e);
+                }
+                spill = null;
+            }
         }
     }
 
-
     /**
-     * represents a maven project
+     * low level zip format writer: local headers and data in order, then the central directory.
+     * Sizes and offsets beyond 4 GB, and more than 65535 entries, are written in Zip64 extra fields and end records.
      */
-    public static class MvnProject {
-        String dependenciesDir = "";
-        String artifactId = "";
-        String version = "";
-        String pomFileName = "pom.xml";
-        String targetDir = "";
-        String javadocDir = "";
-        String projectDir = "";
-        public Map<String, String> properties;
+    static class ZipWriter {
+        private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+        private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+        private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+        private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+        private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+        private static final int ZIP64_EXTRA_FIELD = 0x0001;
+        private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+        private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+        private static final int UTF8_FLAG = 0x0800;
+        private static final int VERSION = 20;
+        private static final int ZIP64_VERSION = 45;
 
-        public MvnProject(String projectDir) {
-            this.projectDir = projectDir;
-            this.targetDir = projectDir + "/target";
-            this.javadocDir = this.targetDir + "/site/apidocs";
-            this.dependenciesDir = this.targetDir + "/dependency";
-            this.version = mvn.projectversion(getPomFilePath());
-            this.artifactId = mvn.projectArtifactId(getPomFilePath());
-        }
+        private final WritableByteChannel channel;
+        private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+        long offset = 0;
+        private int entries = 0;
 
-        public MvnExecutor executor() {
-            MvnExecutor executor = new MvnExecutor();
-            executor.projectPomFile(getPomFilePath());
-            executor.project = this;
-            return executor;
+        ZipWriter(WritableByteChannel channel) {
+            this.channel = channel;
         }
 
-        public String getPomFilePath() {
-            return this.projectDir + "/" + this.pomFileName;
-        }
+        void write(CompressedEntry entry) throws IOException {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            long dosTime = dosTime(entry.time);
+            boolean zip64Sizes = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+            boolean zip64Offset = offset >= ZIP64_MAGIC;
+            int version = zip64Sizes || zip64Offset ? ZIP64_VERSION : VERSION;
+            byte[] localExtra = zip64Sizes ? zip64Extra(entry.size, entry.compressedSize) : new byte[0];
+            byte[] centralExtra = zip64Sizes && zip64Offset ? zip64Extra(entry.size, entry.compressedSize, offset)
+                    : zip64Sizes ? localExtra
+                    : zip64Offset ? zip64Extra(offset)
+                    : new byte[0];
+            ByteBuffer header = littleEndian(30 + name.length + localExtra.length)
+                    .putInt(LOCAL_HEADER_SIGNATURE)
+                    .putShort((short) version)
+                    .putShort((short) UTF8_FLAG)
+                    .putShort((short) entry.method)
+                    .putInt((int) dosTime)
+                    .putInt((int) entry.crc)
+                    .putInt((int) (zip64Sizes ? ZIP64_MAGIC : entry.compressedSize))
+                    .putInt((int) (zip64Sizes ? ZIP64_MAGIC : entry.size))
+                    .putShort((short) name.length)
+                    .putShort((short) localExtra.length)
+                    .put(name)
+                    .put(localExtra);
 
-        public String getJavadocFilePath() {
-            return this.projectDir + " / " + this.targetDir + "/" + this.javadocDir;
-        }
+            ByteBuffer central = littleEndian(46 + name.length + centralExtra.length)
+                    .putInt(CENTRAL_HEADER_SIGNATURE)
+                    .putShort((short) version)
+                    .putShort((short) version)
+                    .putShort((short) UTF8_FLAG)
+                    .putShort((short) entry.method)
+                    .putInt((int) dosTime)
+                    .putInt((int) entry.crc)
+                    .putInt((int) (zip64Sizes ? ZIP64_MAGIC : entry.compressedSize))
+                    .putInt((int) (zip64Sizes ? ZIP64_MAGIC : entry.size))
+                    .putShort((short) name.length)
+                    .putShort((short) centralExtra.length)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putInt(entry.isDirectory() ? 0x10 : 0)
+                    .putInt((int) (zip64Offset ? ZIP64_MAGIC : offset))
+                    .put(name)
+                    .put(centralExtra);
+            centralDirectory.write(central.array());
 
-        public MvnExecutor prepareCompoDoc() {
-            return executor()
-                    .userProperty("frontend.npx.arguments", "\"@compodoc/compodoc -p tsconfig.json  --language 'fr-FR' --theme 'postmark'\"")
-                    .goals(FRONT_END_PLUGIN + ":npx");
+            writeFully(header);
+            try {
+                writeData(entry);
+            } finally {
+                entry.deleteSpill();
+            }
+            entries++;
         }
 
-        public MvnExecutor prepareCleanInstall() {
-            return executor().goals("clean install");
+        private void writeData(CompressedEntry entry) throws IOException {
+            if (entry.data != null) {
+                writeFully(ByteBuffer.wrap(entry.data));
+            } else if (entry.spill != null || entry.source != null) {
+                try (FileChannel in = FileChannel.open(entry.spill != null ? entry.spill : entry.source, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, channel);
+                    }
+                    offset += size;
+                }
+            }
         }
-        
-        public MvnExecutor prepareCleanDeploy() {
-        	return executor().goals("clean deploy");
+
+        void finish() throws IOException {
+            long centralDirectoryOffset = offset;
+            long centralDirectorySize = centralDirectory.size();
+            writeFully(ByteBuffer.wrap(centralDirectory.toByteArray()));
+            if (entries >= ZIP64_MAGIC_COUNT || centralDirectorySize >= ZIP64_MAGIC || centralDirectoryOffset >= ZIP64_MAGIC) {
+                long zip64EndOffset = offset;
+                writeFully(littleEndian(56)
+                        .putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+                        .putLong(44)
+                        .putShort((short) ZIP64_VERSION)
+                        .putShort((short) ZIP64_VERSION)
+                        .putInt(0)
+                        .putInt(0)
+                        .putLong(entries)
+                        .putLong(entries)
+                        .putLong(centralDirectorySize)
+                        .putLong(centralDirectoryOffset));
+                writeFully(littleEndian(20)
+                        .putInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE)
+                        .putInt(0)
+                        .putLong(zip64EndOffset)
+                        .putInt(1));
+            }
+            ByteBuffer end = littleEndian(22)
+                    .putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+                    .putShort((short) 0)
+                    .putShort((short) 0)
+                    .putShort((short) Math.min(entries, ZIP64_MAGIC_COUNT))
+                    .putShort((short) Math.min(entries, ZIP64_MAGIC_COUNT))
+                    .putInt((int) Math.min(centralDirectorySize, ZIP64_MAGIC))
+                    .putInt((int) Math.min(centralDirectoryOffset, ZIP64_MAGIC))
+                    .putShort((short) 0);
+            writeFully(end);
         }
 
-        public MvnExecutor prepareCopyDependencies() {
-            return executor().goals("org.apache.maven.plugins:maven-dependency-plugin:3.1.2:copy-dependencies");
+        private static byte[] zip64Extra(long... values) {
+            ByteBuffer extra = littleEndian(4 + 8 * values.length)
+                    .putShort((short) ZIP64_EXTRA_FIELD)
+                    .putShort((short) (8 * values.length));
+            for (long value : values) {
+                extra.putLong(value);
+            }
+            return extra.array();
         }
 
-        public MvnExecutor prepareJavadoc() {
-            return executor().goals("generate-sources javadoc:javadoc");
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            if (buffer.position() > 0) {
+                // Buffer.flip(), the covariant ByteBuffer.flip() of Java 9 is missing on Java 8
+                ((Buffer) buffer).flip();
+            }
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer);
+            }
         }
 
-        public MvnExecutor prepareJavadocJar() {
-            return executor().goals("generate-sources javadoc:jar");
+        private static ByteBuffer littleEndian(int size) {
+            return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
         }
 
-        public MvnExecutor prepareSourcesJar() {
-            return executor().goals("generate-sources source:jar");
+        static long javaTime(long dosTime) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set((int) (dosTime >> 25 & 0x7f) + 1980, (int) (dosTime >> 21 & 0x0f) - 1, (int) (dosTime >> 16 & 0x1f),
+                    (int) (dosTime >> 11 & 0x1f), (int) (dosTime >> 5 & 0x3f), (int) (dosTime << 1 & 0x3e));
+            return calendar.getTimeInMillis();
         }
 
-        public String target() {
-            return this.projectDir + " / " + this.targetDir;
+        private static long dosTime(long time) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(time);
+            int year = calendar.get(Calendar.YEAR);
+            if (year < 1980) {
+                return (1 << 21) | (1 << 16);
+            }
+            return (year - 1980) << 25
+                    | (calendar.get(Calendar.MONTH) + 1) << 21
+                    | calendar.get(Calendar.DAY_OF_MONTH) << 16
+                    | calendar.get(Calendar.HOUR_OF_DAY) << 11
+                    | calendar.get(Calendar.MINUTE) << 5
+                    | calendar.get(Calendar.SECOND) >> 1;
         }
     }
 
     /**
-     * functionnal interface to represent an operation without result
-     * @param <T>
+     * extracts a zip archive, inflating the entries on several threads
+     *
+     * @param archive the archive to extract
+     * @param target the directory receiving the entries
+     * @return true if every entry has been extracted
      */
-    public interface Operation<T> {
-        void process();
+    public static boolean unzip(String archive, String target) {
+        return prepareUnzip(archive, target).execute();
     }
 
     /**
-     * represents an execution for a maven project.
+     * prepares the extraction of an archive, to be configured then executed
+     * @param archive the archive to extract
+     * @param target the directory receiving the entries
+     * @return an instance of UnzipOperation
      */
-    public static class MvnExecutor {
-        MvnProject project;
-        StringBuilder firstArguments = new StringBuilder();
-        StringBuilder arguments = new StringBuilder();
-        String goals = "";
-        Operation<MvnExecutor> failOperation = () -> logInfo("command status : error executing goal");
-        Operation<MvnExecutor> successOperation = () -> logInfo("command status : success");
+    public static UnzipOperation prepareUnzip(String archive, String target) {
+        return new UnzipOperation(archive, target);
+    }
 
-        public MvnExecutor forceUpdate() {
-            firstArguments.append(" " + MVN_CLI_UPDATE + " ");
-            return this;
+    /**
+     * represents the extraction of a zip archive in a directory.
+     * The central directory is memory-mapped and the entries are read by positional reads on a single channel,
+     * so that they are inflated on several threads, each extraction reusing pooled buffers and inflaters; files are preallocated to their size.
+     * Entries are selected by their name in the archive, with the same include and exclude predicates as {@link CopyOperation},
+     * and entries which would be extracted outside of the target directory (zip-slip) are rejected.
+     */
+    public static class UnzipOperation {
+        final String archive;
+        final String target;
+        Predicate<String> includePredicate;
+        Predicate<String> excludePredicate;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        final AtomicLong files = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        long elapsedMillis;
+        private final Queue<Extractor> extractors = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        UnzipOperation(String archive, String target) {
+            this.archive = archive;
+            this.target = target;
         }
 
-        public MvnExecutor skipTests() {
-            firstArguments.append(" " + MVN_SKIP_TESTS + " ");
+        public UnzipOperation include(Predicate<String> includePredicate) {
+            this.includePredicate = includePredicate;
             return this;
         }
 
-        public MvnExecutor quiet() {
-            firstArguments.append(" " + MVN_CLI_QUIET + " ");
+        public UnzipOperation exclude(Predicate<String> excludePredicate) {
+            this.excludePredicate = excludePredicate;
             return this;
         }
 
-        public MvnExecutor goals(String goals) {
-            this.goals = goals;
+        /**
+         * the number of entries inflated at once, on platform threads or, on Java 21, on virtual threads
+         */
+        public UnzipOperation threads(int threads) {
+            this.threads = Math.max(1, threads);
             return this;
         }
 
-        public MvnExecutor onFail(Operation<MvnExecutor> op) {
-            this.failOperation = op;
-            return this;
+        /**
+         * @return the number of files extracted by the last execution
+         */
+        public long files() {
+            return files.get();
         }
 
-        public MvnExecutor onSuccess(Operation<MvnExecutor> op) {
-            this.successOperation = op;
-            return this;
+        /**
+         * @return the number of bytes extracted by the last execution
+         */
+        public long bytes() {
+            return bytes.get();
         }
 
+        public long elapsedMillis() {
+            return elapsedMillis;
+        }
 
-        public MvnExecutor userProperty(String key, String value) {
-            arguments.append(" " + Reactor.mvnCliParam(key, value));
-            return this;
+        /**
+         * executes the extraction and logs its throughput
+         * @return true if every selected entry has been extracted
+         */
+        public boolean execute() {
+            return run().succeeded();
         }
 
-        public MvnExecutor projectPomFile(String pomFilePath) {
-            firstArguments.append(" -f " + pomFilePath + " ");
-            return this;
+        /**
+         * executes the extraction on the {@link #asyncExecutor()}
+         * @return the future result of the extraction
+         */
+        public CompletableFuture<Result> executeAsync() {
+            return CompletableFuture.supplyAsync(this::run, asyncExecutor());
         }
 
-        public MvnExecutor execute(String executionMessage) {
-            if (mvn.run(this.project.artifactId + " : " + executionMessage, firstArguments.toString(), arguments.toString(), goals)) {
-                successOperation.process();
-            } else {
-                failOperation.process();
+        Result run() {
+            lock.lock();
+            try {
+                return unzip();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Result unzip() {
+            Trace trace = Trace.begin(Trace.Operation.UNZIP, archive).target(target);
+            long startMillis = System.currentTimeMillis();
+            long start = System.nanoTime();
+            files.set(0);
+            bytes.set(0);
+            errors.set(0);
+            Path targetPath = new File(target).toPath().toAbsolutePath().normalize();
+            try (FileChannel channel = FileChannel.open(new File(archive).toPath(), StandardOpenOption.READ)) {
+                List<Callable<Void>> extractions = new ArrayList<>();
+                Set<Path> directories = new TreeSet<>();
+                directories.add(targetPath);
+                for (ArchiveEntry entry : readCentralDirectory(channel)) {
+                    if (!selected(entry.name, includePredicate, excludePredicate)) {
+                        continue;
+                    }
+                    Path destination = targetPath.resolve(entry.name).normalize();
+                    if (entry.isDirectory() && destination.equals(targetPath)) {
+                        continue;
+                    }
+                    if (!destination.startsWith(targetPath) || destination.equals(targetPath)) {
+                        logError("unzip : " + entry.name + " rejected", "unzip", new IOException(entry.name + " is outside of " + target));
+                        errors.incrementAndGet();
+                    } else if (entry.isDirectory()) {
+                        directories.add(destination);
+                    } else {
+                        directories.add(destination.getParent());
+                        extractions.add(() -> {
+                            try (ReactorThreads.AutoCloseableNoException permit = ReactorThreads.ioPermit()) {
+                                extract(channel, entry, destination);
+                            }
+                            return null;
+                        });
+                    }
+                }
+                for (Path directory : directories) {
+                    Files.createDirectories(directory);
+                }
+                extractAll(extractions);
+            } catch (IOException | UncheckedIOException e) {
+                logError("unable to extract " + archive, "unzip", e);
+                errors.incrementAndGet();
+            } finally {
+                for (Extractor extractor = extractors.poll(); extractor != null; extractor = extractors.poll()) {
+                    extractor.inflater.end();
+                }
+            }
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logInfo(String.format("unzip : %s --> %s, %d files (%d bytes) in %d ms, %.0f files/s, %.1f MB/s",
+                    archive, target, files(), bytes(), elapsedMillis,
+                    files() * 1000.0 / Math.max(1, elapsedMillis), bytes() / 1048.576 / Math.max(1, elapsedMillis)));
+            trace.files(files()).bytes(bytes()).end(errors.get() == 0);
+            String message = "unzip : " + archive + " --> " + target;
+            if (errors.get() > 0) {
+                Result result = new Result(Result.Type.UNZIP, "", message, Status.KO,
+                        startMillis, startMillis + elapsedMillis, errors.get() + " entries could not be extracted");
+                results.add(result);
+                return result;
+            }
+            return new Result(Result.Type.UNZIP, "", message, Status.OK, startMillis, startMillis + elapsedMillis, "");
+        }
+
+        private void extractAll(List<Callable<Void>> extractions) throws IOException {
+            ExecutorService pool = ReactorThreads.newBoundedExecutor("javen-unzip", threads);
+            try {
+                for (Future<Void> extraction : pool.invokeAll(extractions)) {
+                    extraction.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while extracting", e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdownNow();
             }
-            return this;
         }
 
+        private void extract(FileChannel channel, ArchiveEntry entry, Path destination) {
+            Extractor extractor = extractors.poll();
+            if (extractor == null) {
+                extractor = new Extractor();
+            }
+            try {
+                LOGGER.finer("extracting : " + entry.name + " to " + destination);
+                extractor.extract(channel, entry, destination);
+                Files.setLastModifiedTime(destination, FileTime.fromMillis(entry.time));
+                if (entry.executable) {
+                    destination.toFile().setExecutable(true);
+                }
+                files.incrementAndGet();
+                bytes.addAndGet(entry.size);
+            } catch (IOException e) {
+                logError("unable to extract " + entry.name, "unzip", e);
+                errors.incrementAndGet();
+                try {
+                    Files.deleteIfExists(destination);
+                } catch (IOException deleteError) {
+                    LOGGER.throwing("Reactor", "unzip", deleteError);
+                }
+            } finally {
+                extractors.offer(extractor);
+            }
+        }
 
+        /**
+         * reads the entries of the central directory, following the Zip64 end records when present
+         */
+        static List<ArchiveEntry> readCentralDirectory(FileChannel channel) throws IOException {
+            long size = channel.size();
+            int tailSize = (int) Math.min(size, 22 + 0xFFFF);
+            ByteBuffer tail = ZipWriter.littleEndian(tailSize);
+            readFully(channel, tail, size - tailSize);
+            int end = tailSize - 22;
+            while (end >= 0 && tail.getInt(end) != ZipWriter.END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                end--;
+            }
+            if (end < 0) {
+                throw new IOException("not a zip archive");
+            }
+            long count = tail.getShort(end + 10) & 0xFFFF;
+            long directorySize = tail.getInt(end + 12) & ZipWriter.ZIP64_MAGIC;
+            long directoryOffset = tail.getInt(end + 16) & ZipWriter.ZIP64_MAGIC;
+            if (end >= 20 && tail.getInt(end - 20) == ZipWriter.ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+                ByteBuffer zip64End = ZipWriter.littleEndian(56);
+                readFully(channel, zip64End, tail.getLong(end - 12));
+                if (zip64End.getInt(0) == ZipWriter.ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                    count = zip64End.getLong(32);
+                    directorySize = zip64End.getLong(40);
+                    directoryOffset = zip64End.getLong(48);
+                }
+            }
+            if (directorySize > Integer.MAX_VALUE || directoryOffset + directorySize > size) {
+                throw new IOException("invalid central directory");
+            }
+            ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, directorySize).order(ByteOrder.LITTLE_ENDIAN);
+            List<ArchiveEntry> entries = new ArrayList<>((int) Math.min(count, 65536));
+            int position = 0;
+            for (long i = 0; i < count; i++) {
+                if (position + 46 > directorySize || directory.getInt(position) != ZipWriter.CENTRAL_HEADER_SIGNATURE) {
+                    throw new IOException("invalid central directory entry " + i);
+                }
+                int nameLength = directory.getShort(position + 28) & 0xFFFF;
+                int extraLength = directory.getShort(position + 30) & 0xFFFF;
+                int commentLength = directory.getShort(position + 32) & 0xFFFF;
+                byte[] name = new byte[nameLength];
+                // absolute reads: ByteBuffer.position(int) of Java 9 is missing on Java 8
+                for (int j = 0; j < nameLength; j++) {
+                    name[j] = directory.get(position + 46 + j);
+                }
+                ArchiveEntry entry = new ArchiveEntry(new String(name, StandardCharsets.UTF_8));
+                entry.method = directory.getShort(position + 10) & 0xFFFF;
+                entry.time = ZipWriter.javaTime(directory.getInt(position + 12) & ZipWriter.ZIP64_MAGIC);
+                entry.crc = directory.getInt(position + 16) & ZipWriter.ZIP64_MAGIC;
+                entry.compressedSize = directory.getInt(position + 20) & ZipWriter.ZIP64_MAGIC;
+                entry.size = directory.getInt(position + 24) & ZipWriter.ZIP64_MAGIC;
+                entry.localHeaderOffset = directory.getInt(position + 42) & ZipWriter.ZIP64_MAGIC;
+                // unix permissions are kept in the high bytes of the external attributes
+                entry.executable = (directory.getShort(position + 4) & 0xFF00) == 0x0300
+                        && (directory.getInt(position + 38) >>> 16 & 0100) != 0;
+                readZip64Extra(directory, position + 46 + nameLength, extraLength, entry);
+                entries.add(entry);
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+            return entries;
+        }
+
+        /**
+         * replaces the sizes and offset saturated in the central directory by their value in the Zip64 extra field
+         */
+        private static void readZip64Extra(ByteBuffer directory, int start, int length, ArchiveEntry entry) {
+            int position = start;
+            while (position + 4 <= start + length) {
+                int id = directory.getShort(position) & 0xFFFF;
+                int size = directory.getShort(position + 2) & 0xFFFF;
+                if (id == ZipWriter.ZIP64_EXTRA_FIELD) {
+                    int value = position + 4;
+                    if (entry.size == ZipWriter.ZIP64_MAGIC) {
+                        entry.size = directory.getLong(value);
+                        value += 8;
+                    }
+                    if (entry.compressedSize == ZipWriter.ZIP64_MAGIC) {
+                        entry.compressedSize = directory.getLong(value);
+                        value += 8;
+                    }
+                    if (entry.localHeaderOffset == ZipWriter.ZIP64_MAGIC) {
+                        entry.localHeaderOffset = directory.getLong(value);
+                    }
+                    return;
+                }
+                position += 4 + size;
+            }
+        }
+
+        static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("unexpected end of archive");
+                }
+            }
+        }
+    }
+
+    /**
+     * an entry of the central directory of an archive
+     */
+    static class ArchiveEntry {
+        final String name;
+        int method;
+        long time;
+        long crc;
+        long size;
+        long compressedSize;
+        long localHeaderOffset;
+        boolean executable;
+
+        ArchiveEntry(String name) {
+            this.name = name;
+        }
+
+        boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * the buffers and inflater of an extraction, reused by the next extraction once released
+     */
+    static class Extractor {
+        final byte[] input = new byte[ZipEngine.BUFFER_SIZE];
+        final byte[] output = new byte[ZipEngine.BUFFER_SIZE];
+        // the extra byte a raw inflater may need, kept apart from the input read from the archive
+        final byte[] padding = new byte[1];
+        final Inflater inflater = new Inflater(true);
+        final CRC32 crc = new CRC32();
+
+        void extract(FileChannel channel, ArchiveEntry entry, Path destination) throws IOException {
+            ByteBuffer header = ZipWriter.littleEndian(30);
+            UnzipOperation.readFully(channel, header, entry.localHeaderOffset);
+            if (header.getInt(0) != ZipWriter.LOCAL_HEADER_SIGNATURE) {
+                throw new IOException("invalid local header for " + entry.name);
+            }
+            long position = entry.localHeaderOffset + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+            crc.reset();
+            inflater.reset();
+            long written;
+            try (RandomAccessFile file = new RandomAccessFile(destination.toFile(), "rw")) {
+                // allocates the whole file at once, and truncates a previous longer file
+                file.setLength(entry.size);
+                FileChannel out = file.getChannel();
+                if (entry.method == ZipEntry.STORED) {
+                    written = copy(channel, position, entry.compressedSize, out);
+                } else if (entry.method == ZipEntry.DEFLATED) {
+                    written = inflate(channel, position, entry, out);
+                } else {
+                    throw new IOException("unsupported compression method " + entry.method + " for " + entry.name);
+                }
+            }
+            if (written != entry.size || crc.getValue() != entry.crc) {
+                throw new IOException("corrupted entry " + entry.name);
+            }
+        }
+
+        private long copy(FileChannel channel, long position, long length, FileChannel out) throws IOException {
+            long remaining = length;
+            while (remaining > 0) {
+                int read = read(channel, position + length - remaining, (int) Math.min(remaining, input.length));
+                crc.update(input, 0, read);
+                write(out, input, read);
+                remaining -= read;
+            }
+            return length;
+        }
+
+        private long inflate(FileChannel channel, long position, ArchiveEntry entry, FileChannel out) throws IOException {
+            long remaining = entry.compressedSize;
+            boolean padded = false;
+            long written = 0;
+            try {
+                while (!inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        if (remaining > 0) {
+                            int read = read(channel, position + entry.compressedSize - remaining, (int) Math.min(remaining, input.length));
+                            remaining -= read;
+                            inflater.setInput(input, 0, read);
+                        } else if (!padded) {
+                            // a raw inflater may need an extra byte to detect the end of the stream
+                            padded = true;
+                            inflater.setInput(padding);
+                        } else {
+                            throw new IOException("truncated entry " + entry.name);
+                        }
+                    }
+                    int length = inflater.inflate(output);
+                    if (length == 0 && inflater.needsDictionary()) {
+                        throw new IOException("corrupted entry " + entry.name);
+                    }
+                    crc.update(output, 0, length);
+                    write(out, output, length);
+                    written += length;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("corrupted entry " + entry.name, e);
+            }
+            return written;
+        }
+
+        private int read(FileChannel channel, long position, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(input, 0, length);
+            UnzipOperation.readFully(channel, buffer, position);
+            return length;
+        }
+
+        private static void write(FileChannel out, byte[] data, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Move origin to target
+     *
+     * @param origin the file to be moved (can be a directory)
+     * @param target the target file
+     * @return true if operation succeedd
+     */
+    public static boolean move(String origin, String target) {
+        Trace trace = Trace.begin(Trace.Operation.MOVE, origin).target(target);
+        try {
+            Files.move(new File(origin).toPath(), new File(target).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+            trace.end(false);
+            return false;
+        }
+        trace.end(true);
+        return true;
+    }
+
+
+    private static void outputSection(String message) {
+        System.out.println();
+        System.out.println();
+        System.out.println("##########################################################################################");
+        System.out.println(message);
+        System.out.println("##########################################################################################");
+        System.out.println();
+        System.out.println();
+    }
+
+
+    /**
+     * copy origin to target
+     * @param origin file (can be a file or a directory) to be copied
+     * @param target file (can be a file or a directory)
+     * @return true if the copy has been successful
+     */
+    public static boolean copy(String origin, String target) {
+        return copy(origin, target, s -> true, s -> false);
+    }
+
+    /**
+     * copies origin to target on the {@link #asyncExecutor()}
+     * @param origin file (can be a file or a directory) to be copied
+     * @param target file (can be a file or a directory)
+     * @return the future result of the copy
+     */
+    public static CompletableFuture<Result> copyAsync(String origin, String target) {
+        return prepareCopy(origin, target).executeAsync();
+    }
+
+    /**
+     * indexes a directory tree: from now on, {@link #find(String, Predicate)} and {@link #delete(String, Predicate)} under this root
+     * query the index instead of walking the disk. The index saved by a previous run is loaded back and refreshed.
+     * @param root the root directory of the tree
+     * @return the index of the tree, to be closed at the end of the integration program to save it
+     */
+    public static FileIndex index(String root) {
+        Path rootPath = new File(root).toPath().toAbsolutePath().normalize();
+        return indexes.computeIfAbsent(rootPath, path -> new FileIndex(path).open());
+    }
+
+    /**
+     * @return the index covering a path, or null if it is not under an indexed root
+     */
+    static FileIndex indexOf(File file) {
+        if (indexes.isEmpty()) {
+            return null;
+        }
+        Path path = file.toPath().toAbsolutePath().normalize();
+        for (FileIndex index : indexes.values()) {
+            if (path.startsWith(index.root)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * find some files matching file name criteria
+     *
+     * @param origin the base path from which to search for files
+     * @param matchCriteria the criteria to retain files
+     * @return a list of files matching the criteria given as parameters
+     */
+    public static List<File> find(String origin, Predicate<String> matchCriteria) {
+        List<File> result = new ArrayList<>();
+        File origingFile = new File(origin);
+        if (origingFile.isFile()) {
+            logInfo("find command run with a file, try with a folder exiting...");
+            results.add(Result.failure(Result.Type.FIND, "find : on " + origin, "called with a file, not a folder"));
+            return result;
+        }
+        Trace trace = Trace.begin(Trace.Operation.FIND, origin);
+        FileIndex index = indexOf(origingFile);
+        if (index != null) {
+            result = index.find(origin, matchCriteria);
+            trace.files(result.size()).end(true);
+            return result;
+        }
+        try (Stream<Path> stream = Files.walk(origingFile.toPath())) {
+            result = stream
+                    .filter(p -> matchCriteria.test(p.getFileName().toString()))
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            logError("error while walking through directory structure", "find", e);
+            trace.end(false);
+            return result;
+        }
+        trace.files(result.size()).end(true);
+        return result;
+
+
+    }
+
+    /**
+     * Deletes a folder or a directory.
+     * If the path is the current execution path or one of its parents, then the operation is rejected.
+     * Sub directories are deleted in parallel, symbolic links are deleted but never followed.
+     *
+     * @param path the path to be deleted
+     * @return true if operation succeeded
+     */
+    public static boolean delete(String path) {
+        File target = new File(path);
+        if (holdsExecutionHome(target.toPath())) {
+            return false;
+        }
+        Trace trace = Trace.begin(Trace.Operation.DELETE, path);
+        boolean deleted = deleteDirectory(target);
+        trace.end(deleted);
+        return deleted;
+    }
+
+    /**
+     * @return true if deleting the path would delete the current execution directory, which is then rejected
+     */
+    static boolean holdsExecutionHome(Path path) {
+        Path execHome = new File(System.getProperty("user.dir")).getAbsoluteFile().toPath().normalize();
+        if (execHome.startsWith(path.toAbsolutePath().normalize())) {
+            logInfo("rejecting the delete of " + path + ", it holds the project directory");
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean deleteDirectory(File directoryToBeDeleted) {
+        return ReactorThreads.invoke(new DeleteTreeTask(directoryToBeDeleted.toPath()), 0);
+    }
+
+    /**
+     * Deletes a folder or a directory in background: it is first renamed to a trash sibling, which is purged by
+     * a background thread, so that the path is freed almost at once.
+     * Trash left by a previous interrupted execution in the same parent directory is purged as well.
+     * If the rename is not possible, the delete is done synchronously.
+     *
+     * @param path the path to be deleted
+     * @return true if the path has been freed
+     */
+    public static boolean deleteInBackground(String path) {
+        File target = new File(path).getAbsoluteFile();
+        if (holdsExecutionHome(target.toPath()) || !target.exists()) {
+            return false;
+        }
+        Path targetPath = target.toPath();
+        Path trash = targetPath.resolveSibling("." + target.getName() + TRASH_SUFFIX + System.nanoTime());
+        Trace trace = Trace.begin(Trace.Operation.MOVE, path).target(trash.toString());
+        try {
+            Files.move(targetPath, trash, StandardCopyOption.ATOMIC_MOVE);
+            trace.end(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            trace.end(false);
+            logInfo("unable to move " + path + " to trash, deleting it synchronously");
+            return delete(path);
+        }
+        File[] leftovers = target.getParentFile().listFiles((dir, name) -> name.startsWith(".") && name.contains(TRASH_SUFFIX));
+        synchronized (backgroundDeletes) {
+            for (File leftover : leftovers == null ? new File[0] : leftovers) {
+                Path trashPath = leftover.toPath();
+                if (purgingTrash.add(trashPath)) {
+                    backgroundDeletes.add(trashPurger.submit(() -> {
+                        boolean deleted = ReactorThreads.invoke(new DeleteTreeTask(trashPath), 0);
+                        purgingTrash.remove(trashPath);
+                        return deleted;
+                    }));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * waits for the completion of the deletes started by {@link #deleteInBackground(String)}
+     * @return true if all of them succeeded
+     */
+    public static boolean awaitBackgroundDeletes() {
+        List<Future<Boolean>> pending;
+        synchronized (backgroundDeletes) {
+            pending = new ArrayList<>(backgroundDeletes);
+            backgroundDeletes.clear();
+        }
+        boolean success = true;
+        for (Future<Boolean> delete : pending) {
+            try {
+                success &= delete.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                logError("error while purging trash", "awaitBackgroundDeletes", e);
+                success = false;
+            }
+        }
+        return success;
+    }
+
+    /**
+     * deletes files based on the given criteria.
+     * Matching directories are deleted with their whole content without being walked further.
+     * @param path the base path to trigger the delete operation
+     * @param matchCriteria the matching criteria (on the file name) to retain files
+     */
+    public static void delete(String path, Predicate<String> matchCriteria) {
+        final File fileDirectory = new File(path);
+        if (!fileDirectory.exists()) {
+            return;
+        }
+        if (matchCriteria.test(fileDirectory.toPath().getFileName().toString())) {
+            delete(path);
+            return;
+        }
+        Trace trace = Trace.begin(Trace.Operation.DELETE, path);
+        FileIndex index = indexOf(fileDirectory);
+        boolean deleted = index != null ? index.delete(path, matchCriteria)
+                : ReactorThreads.invoke(new DeleteMatchingTask(fileDirectory.toPath(), matchCriteria), 0);
+        trace.end(deleted);
+        if (!deleted) {
+            logInfo("some files matching the criteria could not be deleted under " + path);
+        }
+    }
+
+    /**
+     * deletes a file or a directory tree, sub directories being deleted in parallel
+     */
+    static class DeleteTreeTask implements Callable<Boolean> {
+        final Path path;
+
+        DeleteTreeTask(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public Boolean call() {
+            boolean success = true;
+            try {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    List<Callable<Boolean>> subtasks = new ArrayList<>();
+                    try (ReactorThreads.AutoCloseableNoException permit = ReactorThreads.ioPermit();
+                         DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                        for (Path child : children) {
+                            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                                subtasks.add(new DeleteTreeTask(child));
+                            } else {
+                                success &= deleteQuietly(child);
+                            }
+                        }
+                    }
+                    for (boolean deleted : ReactorThreads.invokeAll(subtasks)) {
+                        success &= deleted;
+                    }
+                }
+                return Files.deleteIfExists(path) && success;
+            } catch (IOException e) {
+                LOGGER.throwing("Reactor", "delete", e);
+                return false;
+            }
+        }
+
+        private static boolean deleteQuietly(Path file) {
+            try {
+                Files.deleteIfExists(file);
+                return true;
+            } catch (IOException e) {
+                LOGGER.throwing("Reactor", "delete", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * walks a directory tree once, deleting the entries whose name matches the criteria
+     */
+    static class DeleteMatchingTask implements Callable<Boolean> {
+        final Path directory;
+        final Predicate<String> matchCriteria;
+
+        DeleteMatchingTask(Path directory, Predicate<String> matchCriteria) {
+            this.directory = directory;
+            this.matchCriteria = matchCriteria;
+        }
+
+        @Override
+        public Boolean call() {
+            List<Callable<Boolean>> subtasks = new ArrayList<>();
+            boolean success = true;
+            try (ReactorThreads.AutoCloseableNoException permit = ReactorThreads.ioPermit();
+                 DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    if (matchCriteria.test(child.getFileName().toString())) {
+                        if (holdsExecutionHome(child)) {
+                            success = false;
+                        } else {
+                            subtasks.add(new DeleteTreeTask(child));
+                        }
+                    } else if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        subtasks.add(new DeleteMatchingTask(child, matchCriteria));
+                    }
+                }
+            } catch (IOException e) {
+                logError("error while walking through directory structure", "delete", e);
+                return false;
+            }
+            for (boolean deleted : ReactorThreads.invokeAll(subtasks)) {
+                success &= deleted;
+            }
+            return success;
+        }
+    }
+
+
+    /**
+     * an in-memory index of a directory tree, answering the name predicate queries of {@link #find(String, Predicate)}
+     * and {@link #delete(String, Predicate)} without walking the disk.
+     * Before each query, the index is refreshed: every indexed directory whose modification time changed is listed again,
+     * or, once {@link #watch()} is called, only the directories reported by a {@link WatchService}.
+     * The index is saved under the javen.index.dir directory (target/javen-index by default) when closed,
+     * and loaded back by the next {@link Reactor#index(String)} of the same root.
+     */
+    public static class FileIndex implements AutoCloseable {
+        private static final String FORMAT = "javen-file-index-1";
+        /**
+         * a directory modified less than this before it was listed may have changed within the same modification time
+         */
+        private static final long MTIME_GRANULARITY = 2000;
+
+        final Path root;
+        private final Map<Path, IndexedDirectory> directories = new HashMap<>();
+        private final Set<Path> dirty = new HashSet<>();
+        private WatchService watcher;
+        private final Map<WatchKey, Path> watchKeys = new HashMap<>();
+        private final Map<Path, WatchKey> watchedDirectories = new HashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        FileIndex(Path root) {
+            this.root = root;
+        }
+
+        static class IndexedDirectory {
+            final long modified;
+            final long listed;
+            final String[] names;
+            final boolean[] directory;
+
+            IndexedDirectory(long modified, long listed, String[] names, boolean[] directory) {
+                this.modified = modified;
+                this.listed = listed;
+                this.names = names;
+                this.directory = directory;
+            }
+        }
+
+        /**
+         * @return the file in which the index of this root is saved
+         */
+        File indexFile() {
+            return new File(System.getProperty("javen.index.dir", "target/javen-index"), hashString(root.toString()) + ".idx");
+        }
+
+        /**
+         * loads the saved index of the root, or lists the whole tree if there is none
+         */
+        FileIndex open() {
+            lock.lock();
+            try {
+                File indexFile = indexFile();
+                if (indexFile.isFile()) {
+                    try {
+                        load(indexFile);
+                        logInfo("index of " + root + " loaded, " + directories.size() + " directories");
+                        return this;
+                    } catch (IOException e) {
+                        logError("unable to load the index of " + root + ", listing the tree again", "open", e);
+                        directories.clear();
+                    }
+                }
+                if (Files.isDirectory(root)) {
+                    scan(Paths.get(""));
+                }
+                return this;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * keeps the index up to date from the events of a watch service instead of checking every directory
+         * @return this index
+         */
+        public FileIndex watch() {
+            lock.lock();
+            try {
+                if (watcher == null) {
+                    try {
+                        refresh();
+                        watcher = root.getFileSystem().newWatchService();
+                        for (Path directory : directories.keySet()) {
+                            register(directory);
+                        }
+                    } catch (IOException e) {
+                        logError("unable to watch " + root + ", the index is refreshed by modification times", "watch", e);
+                        stopWatching();
+                    }
+                }
+                return this;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * lists again the directories which changed since the last query
+         */
+        public void refresh() {
+            lock.lock();
+            try {
+                if (watcher != null && drainEvents()) {
+                    for (Path directory : new ArrayList<>(dirty)) {
+                        if (dirty.remove(directory) && directories.containsKey(directory)) {
+                            scan(directory);
+                        }
+                    }
+                    return;
+                }
+                dirty.clear();
+                for (Path directory : new ArrayList<>(directories.keySet())) {
+                    IndexedDirectory indexed = directories.get(directory);
+                    if (indexed != null && changed(directory, indexed)) {
+                        scan(directory);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * same as {@link Reactor#find(String, Predicate)}, on the index
+         * @param origin the base path from which to search for files, the root or one of its directories
+         * @param matchCriteria the criteria to retain files
+         * @return the files matching the criteria, in the order of a {@link Files#walk(Path, java.nio.file.FileVisitOption...)}
+         */
+        public List<File> find(String origin, Predicate<String> matchCriteria) {
+            lock.lock();
+            try {
+                refresh();
+                List<File> result = new ArrayList<>();
+                Path originPath = new File(origin).toPath();
+                Path relative = relativize(originPath);
+                if (relative == null || !directories.containsKey(relative)) {
+                    return result;
+                }
+                Path name = originPath.getFileName();
+                if (name != null && matchCriteria.test(name.toString())) {
+                    result.add(originPath.toFile());
+                }
+                collect(relative, originPath, matchCriteria, true, result);
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * same as {@link Reactor#delete(String, Predicate)}, the matching entries being found on the index
+         * @param path the base path of the delete, the root or one of its directories
+         * @param matchCriteria the matching criteria (on the file name) of the entries to delete
+         * @return true if every matching entry was deleted
+         */
+        public boolean delete(String path, Predicate<String> matchCriteria) {
+            lock.lock();
+            try {
+                refresh();
+                Path basePath = new File(path).toPath();
+                Path relative = relativize(basePath);
+                if (relative == null || !directories.containsKey(relative)) {
+                    return true;
+                }
+                List<File> matches = new ArrayList<>();
+                collect(relative, basePath, matchCriteria, false, matches);
+                List<Callable<Boolean>> deletes = new ArrayList<>();
+                Set<Path> parents = new HashSet<>();
+                boolean rejected = false;
+                for (File match : matches) {
+                    if (holdsExecutionHome(match.toPath())) {
+                        rejected = true;
+                        continue;
+                    }
+                    deletes.add(new DeleteTreeTask(match.toPath()));
+                    Path parent = relativize(match.toPath()).getParent();
+                    parents.add(parent == null ? Paths.get("") : parent);
+                }
+                boolean success = ReactorThreads.invoke(() -> {
+                    boolean deleted = true;
+                    for (boolean result : ReactorThreads.invokeAll(deletes)) {
+                        deleted &= result;
+                    }
+                    return deleted;
+                }, 0);
+                for (Path parent : parents) {
+                    if (directories.containsKey(parent)) {
+                        scan(parent);
+                    }
+                }
+                return success && !rejected;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return the number of indexed directories
+         */
+        public int directories() {
+            lock.lock();
+            try {
+                return directories.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * saves the index, so that the next run only lists the directories which changed
+         */
+        public void save() {
+            lock.lock();
+            try {
+                File indexFile = indexFile();
+                try {
+                    Files.createDirectories(indexFile.getAbsoluteFile().getParentFile().toPath());
+                    File temporary = new File(indexFile.getPath() + ".tmp");
+                    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temporary))))) {
+                        out.writeUTF(FORMAT);
+                        out.writeUTF(root.toString());
+                        out.writeInt(directories.size());
+                        for (Map.Entry<Path, IndexedDirectory> entry : directories.entrySet()) {
+                            IndexedDirectory indexed = entry.getValue();
+                            out.writeUTF(entry.getKey().toString().replace(File.separatorChar, '/'));
+                            out.writeLong(indexed.modified);
+                            out.writeLong(indexed.listed);
+                            out.writeInt(indexed.names.length);
+                            for (int i = 0; i < indexed.names.length; i++) {
+                                out.writeUTF(indexed.names[i]);
+                                out.writeBoolean(indexed.directory[i]);
+                            }
+                        }
+                    }
+                    Files.move(temporary.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    logError("unable to save the index of " + root, "save", e);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * stops watching, saves the index and stops using it for {@link Reactor#find(String, Predicate)} and {@link Reactor#delete(String, Predicate)}
+         */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                stopWatching();
+                save();
+                indexes.remove(root, this);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void load(File indexFile) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(indexFile))))) {
+                if (!FORMAT.equals(in.readUTF()) || !root.toString().equals(in.readUTF())) {
+                    throw new IOException("not an index of " + root);
+                }
+                int count = in.readInt();
+                for (int d = 0; d < count; d++) {
+                    Path directory = Paths.get(in.readUTF().replace('/', File.separatorChar));
+                    long modified = in.readLong();
+                    long listed = in.readLong();
+                    String[] names = new String[in.readInt()];
+                    boolean[] directoryFlags = new boolean[names.length];
+                    for (int i = 0; i < names.length; i++) {
+                        names[i] = in.readUTF();
+                        directoryFlags[i] = in.readBoolean();
+                    }
+                    directories.put(directory, new IndexedDirectory(modified, listed, names, directoryFlags));
+                }
+            }
+        }
+
+        private Path relativize(Path path) {
+            Path absolute = path.toAbsolutePath().normalize();
+            return absolute.startsWith(root) ? root.relativize(absolute) : null;
+        }
+
+        private boolean changed(Path directory, IndexedDirectory indexed) {
+            try {
+                long modified = Files.getLastModifiedTime(root.resolve(directory), LinkOption.NOFOLLOW_LINKS).toMillis();
+                return modified != indexed.modified || indexed.listed - modified < MTIME_GRANULARITY;
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        /**
+         * lists a directory again, new sub directories being listed recursively and removed ones dropped with their content
+         */
+        private void scan(Path directory) {
+            Path absolute = root.resolve(directory);
+            IndexedDirectory previous = directories.remove(directory);
+            Set<String> previousDirectories = new HashSet<>();
+            if (previous != null) {
+                for (int i = 0; i < previous.names.length; i++) {
+                    if (previous.directory[i]) {
+                        previousDirectories.add(previous.names[i]);
+                    }
+                }
+            }
+            List<String> names = new ArrayList<>();
+            List<Boolean> directoryFlags = new ArrayList<>();
+            long listed = System.currentTimeMillis();
+            long modified;
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(absolute)) {
+                modified = Files.getLastModifiedTime(absolute, LinkOption.NOFOLLOW_LINKS).toMillis();
+                for (Path child : children) {
+                    names.add(child.getFileName().toString());
+                    directoryFlags.add(Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS));
+                }
+            } catch (IOException e) {
+                forget(directory);
+                for (String name : previousDirectories) {
+                    forget(directory.resolve(name));
+                }
+                return;
+            }
+            boolean[] flags = new boolean[names.size()];
+            for (int i = 0; i < flags.length; i++) {
+                flags[i] = directoryFlags.get(i);
+            }
+            directories.put(directory, new IndexedDirectory(modified, listed, names.toArray(new String[0]), flags));
+            if (watcher != null && !watchedDirectories.containsKey(directory)) {
+                register(directory);
+            }
+            for (int i = 0; i < flags.length; i++) {
+                if (flags[i]) {
+                    boolean known = previousDirectories.remove(names.get(i));
+                    Path child = directory.resolve(names.get(i));
+                    if (!known || !directories.containsKey(child)) {
+                        scan(child);
+                    }
+                }
+            }
+            for (String removed : previousDirectories) {
+                forget(directory.resolve(removed));
+            }
+        }
+
+        /**
+         * drops a directory and its whole content from the index
+         */
+        private void forget(Path directory) {
+            IndexedDirectory indexed = directories.remove(directory);
+            WatchKey key = watchedDirectories.remove(directory);
+            if (key != null) {
+                key.cancel();
+                watchKeys.remove(key);
+            }
+            if (indexed != null) {
+                for (int i = 0; i < indexed.names.length; i++) {
+                    if (indexed.directory[i]) {
+                        forget(directory.resolve(indexed.names[i]));
+                    }
+                }
+            }
+        }
+
+        private void register(Path directory) {
+            try {
+                WatchKey key = root.resolve(directory).register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchKeys.put(key, directory);
+                watchedDirectories.put(directory, key);
+            } catch (IOException e) {
+                dirty.add(directory);
+            }
+        }
+
+        /**
+         * collects the directories reported by the watch service
+         * @return false if events were lost, every directory must then be checked
+         */
+        private boolean drainEvents() {
+            boolean complete = true;
+            for (WatchKey key = watcher.poll(); key != null; key = watcher.poll()) {
+                Path directory = watchKeys.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        complete = false;
+                    } else if (directory != null && event.kind() != StandardWatchEventKinds.ENTRY_MODIFY) {
+                        dirty.add(directory);
+                    }
+                }
+                if (!key.reset() && directory != null) {
+                    watchKeys.remove(key);
+                    watchedDirectories.remove(directory);
+                    Path parent = directory.getParent();
+                    dirty.add(parent == null ? Paths.get("") : parent);
+                }
+            }
+            return complete;
+        }
+
+        private void stopWatching() {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    LOGGER.throwing("Reactor", "stopWatching", e);
+                }
+                watcher = null;
+            }
+            watchKeys.clear();
+            watchedDirectories.clear();
+        }
+
+        /**
+         * walks the index in the order of a {@link Files#walk(Path, java.nio.file.FileVisitOption...)}
+         * @param descendMatches true to walk into the matching directories too, false to stop at them
+         */
+        private void collect(Path directory, Path path, Predicate<String> matchCriteria, boolean descendMatches, List<File> result) {
+            IndexedDirectory indexed = directories.get(directory);
+            if (indexed == null) {
+                return;
+            }
+            for (int i = 0; i < indexed.names.length; i++) {
+                Path child = path.resolve(indexed.names[i]);
+                boolean matches = matchCriteria.test(indexed.names[i]);
+                if (matches) {
+                    result.add(child.toFile());
+                }
+                if (indexed.directory[i] && (descendMatches || !matches)) {
+                    collect(directory.resolve(indexed.names[i]), child, matchCriteria, descendMatches, result);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * nested class to represent Maven Related Operations
+     */
+    public static class mvn {
+        /**
+         * runs a maven execution parameterized to execute the maven-dependency-plugin:copy-dependencies
+         *
+         * @param pomFilePath the target maven project file
+         * @return true if operation succeeded
+         */
+        public static boolean copyDependencies(String pomFilePath) {
+            logInfo("materializing dependencies for project : " + pomFilePath);
+            return mvn.run("materializing dependencies for project : " + pomFilePath, mvnCliPomFile(pomFilePath), " org.apache.maven.plugins:maven-dependency-plugin:3.1.2:copy-dependencies");
+        }
+
+        /**
+         * reads the current project version, target pom file is defined by pomFilePath
+         *
+         * @param pomFilePath project to read
+         * @return a String containing the version
+         */
+        public static String projectversion(String pomFilePath) {
+            String version = "";
+            try {
+                version = extractVersion(pomFilePath);
+
+            } catch (Exception e) {
+                logError("problem reading the version", "mvnProjectVersion", e);
+            }
+            return version;
+        }
+
+        /**
+         * reads the current project version, target pom file is defined by pomFilePath
+         *
+         * @param pomFilePath project to read
+         * @return a String containing the version
+         */
+        public static String projectArtifactId(String pomFilePath) {
+            String version = "";
+            try {
+                version = extractArtifactId(pomFilePath);
+
+            } catch (Exception e) {
+                logError("problem reading the version", "mvnProjectVersion", e);
+            }
+            return version;
+        }
+
+        /**
+         * reads the current project groupId (inherited from the parent if not declared), target pom file is defined by pomFilePath
+         *
+         * @param pomFilePath project to read
+         * @return a String containing the groupId
+         */
+        public static String projectGroupId(String pomFilePath) {
+            String groupId = "";
+            try {
+                groupId = extractGroupId(pomFilePath);
+
+            } catch (Exception e) {
+                logError("problem reading the groupId", "projectGroupId", e);
+            }
+            return groupId;
+        }
+
+        /**
+         * reads the "groupId:artifactId" coordinates of the parent and the direct dependencies of a project
+         *
+         * @param pomFilePath project to read
+         * @return a list of coordinates, empty if the pom could not be read
+         */
+        public static List<String> projectDependencies(String pomFilePath) {
+            List<String> dependencies = new ArrayList<>();
+            try {
+                dependencies = extractDependencies(pomFilePath);
+
+            } catch (Exception e) {
+                logError("problem reading the dependencies", "projectDependencies", e);
+            }
+            return dependencies;
+        }
+
+
+        /**
+         * the default engine, forking a new maven process for every invocation
+         */
+        public static final MvnEngine FORKED = new ProcessMvnEngine(null);
+
+        private static MvnEngine embedded;
+        private static MvnEngine daemon;
+        // held while the file system is searched for maven or mvnd
+        private static final ReentrantLock enginesLock = new ReentrantLock();
+
+        /**
+         * an engine running maven inside the current JVM, keeping maven classes loaded and the JIT warm between invocations.
+         * Falls back to the forked engine if no maven installation can be found.
+         * @return the shared embedded engine
+         */
+        public static MvnEngine embedded() {
+            enginesLock.lock();
+            try {
+                if (embedded == null) {
+                    embedded = embeddedEngine(EmbeddedMvnEngine.findMavenHome());
+                }
+                return embedded;
+            } finally {
+                enginesLock.unlock();
+            }
+        }
+
+        static MvnEngine embeddedEngine(File mavenHome) {
+            if (mavenHome == null) {
+                logInfo("no maven installation found for the embedded engine, falling back to forked invocations");
+                return FORKED;
+            }
+            return new EmbeddedMvnEngine(mavenHome);
+        }
+
+        /**
+         * an engine delegating to the maven daemon (mvnd), a long-lived worker JVM keeping plugin realms and the JIT warm.
+         * Falls back to the forked engine if mvnd is not installed.
+         * @return the shared daemon engine
+         */
+        public static MvnEngine daemon() {
+            enginesLock.lock();
+            try {
+                if (daemon == null) {
+                    daemon = daemonEngine(findExecutable("MVND_HOME", "mvnd"));
+                }
+                return daemon;
+            } finally {
+                enginesLock.unlock();
+            }
+        }
+
+        static MvnEngine daemonEngine(File mvnd) {
+            if (mvnd == null) {
+                logInfo("mvnd not found, falling back to forked invocations");
+                return FORKED;
+            }
+            return new ProcessMvnEngine(mvnd);
+        }
+
+        static String engineName(MvnEngine engine) {
+            if (engine == FORKED) {
+                return "forked";
+            }
+            if (engine instanceof EmbeddedMvnEngine) {
+                return "embedded";
+            }
+            if (engine == daemon) {
+                return "daemon";
+            }
+            return engine.getClass().getSimpleName();
+        }
+
+        public static boolean run(String message, String... arguments) {
+            return run(FORKED, message, arguments);
+        }
+
+        /**
+         * runs maven with the given arguments on a specific engine
+         * @param engine the engine executing the invocation
+         * @param message the message describing the invocation
+         * @param arguments maven options and goals
+         * @return true if the invocation succeeded
+         */
+        public static boolean run(MvnEngine engine, String message, String... arguments) {
+            return runFor(engine, null, message, arguments).succeeded();
+        }
+
+        /**
+         * runs maven and records the result for a project, null for an invocation outside of the projects
+         */
+        static Result runFor(MvnEngine engine, MvnProject project, String message, String... arguments) {
+            return runFor(engine, new MvnInvocation(0), project, message, arguments);
+        }
+
+        static Result runFor(MvnEngine engine, MvnInvocation invocation, MvnProject project, String message, String... arguments) {
+            Result result = invoke(engine, invocation, project, message, arguments);
+            results.add(result);
+            return result;
+        }
+
+        /**
+         * runs maven without recording the result in the summary
+         */
+        static Result invoke(MvnEngine engine, MvnProject project, String message, String... arguments) {
+            return invoke(engine, new MvnInvocation(0), project, message, arguments);
+        }
+
+        /**
+         * runs maven under the control of an invocation, which may time out or be cancelled
+         */
+        static Result invoke(MvnEngine engine, MvnInvocation invocation, MvnProject project, String message, String... arguments) {
+            InvocationRequest request = new ControlledInvocationRequest(invocation);
+            request.setJavaHome(new File(System.getProperty("java.home")));
+            // the local repository checked by the prefetch is the one maven fills
+            if (System.getProperty("maven.repo.local") != null && !String.join(" ", arguments).contains("-Dmaven.repo.local")) {
+                File repository = EffectivePom.localRepository();
+                repository.mkdirs();
+                request.setLocalRepositoryDirectory(repository);
+            }
+            List<String> argumentsList = new ArrayList<String>(Arrays.asList(arguments));
+            //argumentsList.add(0, "-q");
+            ResourceController controller = resourceController;
+            Allocation allocation = null;
+            if (controller != null) {
+                try {
+                    allocation = controller.acquire();
+                    argumentsList.addAll(allocation.arguments(argumentsList));
+                    request.setMavenOpts(allocation.mavenOpts(System.getenv("MAVEN_OPTS")));
+                    LOGGER.fine(message + " : " + allocation);
+                } catch (InterruptedException e) {
+                    // running without a share would overcommit the machine the controller protects
+                    Thread.currentThread().interrupt();
+                    LOGGER.warning(message + " : interrupted while waiting for resources, not run");
+                    long now = System.currentTimeMillis();
+                    return new Result(Result.Type.MAVEN, project == null ? "" : project.artifactId, message, Status.KO, now, now, -1, "interrupted while waiting for resources");
+                }
+            }
+            request.setGoals(argumentsList);
+            MojoTimer timer = new MojoTimer(message);
+            // the embedded engine redirects System.out while maven runs, the console is captured before
+            PrintStream console = System.out;
+            boolean echo = Boolean.getBoolean("javen.output.console");
+            OutputCapture capture = new OutputCapture(OutputCapture.logFile(project, message), Integer.getInteger("javen.output.tail", 50), line -> {
+                if (echo) {
+                    console.println(line);
+                }
+                timer.consumeLine(line);
+            });
+            request.setOutputHandler(capture);
+            request.setErrorHandler(capture);
+            logInfo(message + " : mvn " + String.join(" ", argumentsList).trim().replaceAll("\\s+", " "));
+            Trace trace = Trace.begin(Trace.Operation.MAVEN, message).goals(String.join(" ", argumentsList).trim()).engine(engineName(engine));
+            long start = System.currentTimeMillis();
+            int exitCode = -1;
+            String error = "";
+            List<MojoTiming> mojos = Collections.emptyList();
+            runningInvocations.add(invocation);
+            try {
+                if (invocation.cancelled) {
+                    throw new MavenInvocationException("cancelled before starting");
+                }
+                InvocationResult result = engine.execute(request);
+                exitCode = result.getExitCode();
+                if (result.getExecutionException() != null) {
+                    error = result.getExecutionException().toString();
+                } else if (exitCode != 0) {
+                    error = "exit code " + exitCode;
+                }
+            } catch (MavenInvocationException e) {
+                LOGGER.throwing(Reactor.class.getName(), "mvn()", e);
+                error = e.toString();
+            } finally {
+                runningInvocations.remove(invocation);
+                if (allocation != null) {
+                    controller.release(allocation);
+                }
+                capture.close();
+                mojos = timer.finish();
+                mojoTimings.addAll(mojos);
+            }
+            if (invocation.timedOut) {
+                error = "timed out after " + TimeUnit.MILLISECONDS.toSeconds(invocation.timeoutMillis) + " s, process tree killed";
+            } else if (invocation.cancelled) {
+                error = "cancelled";
+            }
+            Status status = invocation.timedOut ? Status.TIMED_OUT : error.isEmpty() ? Status.OK : Status.KO;
+            if (status != Status.OK && !echo) {
+                printTail(message, capture);
+            }
+            trace.exitCode(exitCode).end(status == Status.OK);
+            Result result = new Result(Result.Type.MAVEN, project == null ? "" : project.artifactId, message, status, start, System.currentTimeMillis(), exitCode, error);
+            result.mojos = mojos;
+            return result;
+        }
+
+        /**
+         * shares the machine between the maven invocations running at the same time: each one gets its -T, surefire forkCount
+         * and maven heap from the controller, by the current load
+         * @param controller the controller, see {@link ResourceController#ofMachine()}, null to let every invocation use the defaults of maven
+         */
+        public static void resources(ResourceController controller) {
+            resourceController = controller;
+        }
+
+        /**
+         * cancels every running maven invocation, killing the forked processes and their children
+         */
+        public static void cancelAll() {
+            for (MvnInvocation invocation : runningInvocations) {
+                invocation.cancel();
+            }
+        }
+
+        /**
+         * prints the last lines of a failed invocation in one block, so that concurrent invocations do not interleave
+         */
+        private static void printTail(String message, OutputCapture capture) {
+            StringBuilder block = new StringBuilder();
+            block.append(System.lineSeparator()).append("########## ").append(message).append(" failed, last ")
+                    .append(capture.tail().size()).append(" of ").append(capture.lines()).append(" lines (full output in ")
+                    .append(capture.getLogFile()).append(") ##########").append(System.lineSeparator());
+            for (String line : capture.tail()) {
+                block.append(line).append(System.lineSeparator());
+            }
+            System.out.print(block);
+            System.out.flush();
+        }
+
+        /**
+         * operate a javadoc-jar goal on the targetted project
+         * @param pomFilePath the project file path
+         * @param options supplemental options
+         */
+        public static void javadocJar(String pomFilePath, String... options) {
+            mvn.run("building javadoc jar  for " + pomFilePath, "-f " + pomFilePath, processOptions(options), "generate-sources javadoc:jar");
+
+        }
+
+        /**
+         * reads the current project properties (inherited from the parents and interpolated), target pom file is defined by pomFilePath
+         *
+         * @param pomFilePath project to read
+         * @return a map containing the project parameters
+         */
+        public static Map<String, String> mvnProjectProperties(String pomFilePath) {
+            Map<String, String> resultMap = new LinkedHashMap<>();
+            try {
+                resultMap.putAll(EffectivePom.resolve(pomFilePath).properties);
+            } catch (Exception e) {
+                logError("problem reading the properties", "mvnProjectProperties", e);
+            }
+            return resultMap;
+        }
+
+        /**
+         * reads a pom file with the shared, cached pom reader
+         *
+         * @param pomFilePath project to read
+         * @return the pom model, or null if the pom could not be read
+         */
+        public static PomModel pom(String pomFilePath) {
+            try {
+                return PomModel.read(pomFilePath);
+            } catch (IOException e) {
+                logError("problem reading the pom", "pom", e);
+                return null;
+            }
+        }
+
+        /**
+         * creates a maven project representation from a directory
+         * @param projectDir the directory containing a maven project
+         * @return an instance of MvnProject
+         */
+        public static MvnProject project(String projectDir) {
+            return new MvnProject(projectDir);
+        }
+
+        /**
+         * creates a scheduler to build a group of maven projects concurrently, following their inter-dependencies
+         * @param projects the projects to build
+         * @return an instance of MvnScheduler
+         */
+        public static MvnScheduler scheduler(List<MvnProject> projects) {
+            return new MvnScheduler(projects);
+        }
+
+        /**
+         * creates a prefetch of the dependencies and plugins of a group of projects, after which their executors run offline
+         * @param projects the projects whose dependencies are resolved
+         * @return an instance of DependencyPrefetch
+         */
+        public static DependencyPrefetch prefetch(List<MvnProject> projects) {
+            return new DependencyPrefetch(projects);
+        }
+
+        /**
+         * opens a local artifact cache, see {@link MvnExecutor#cache(ArtifactCache)}
+         * @param directory the cache directory, which can be shared by the JVMs of the host
+         * @return an instance of ArtifactCache, with a 10 GB budget by default
+         */
+        public static ArtifactCache cache(String directory) {
+            return new ArtifactCache(new File(directory));
+        }
+
+        /**
+         * creates a watcher rebuilding the projects of a group whose files changed, see {@link MvnWatcher#watch(String)}
+         * @param projects the projects to watch
+         * @return an instance of MvnWatcher
+         */
+        public static MvnWatcher watcher(List<MvnProject> projects) {
+            return new MvnWatcher(projects);
+        }
+
+        /**
+         * triggers a "javadoc:javadoc" goal on the targeted project
+         * @param pomFilePath the pom.xml file representing the maven project
+         * @param options supplemental options
+         */
+        public static void javadoc(String pomFilePath, String... options) {
+
+            mvn.run("building javadoc folder (apidoc) for " + pomFilePath, "-f " + pomFilePath, processOptions(options), "generate-sources javadoc:javadoc");
+
+        }
+
+        /**
+         * triggers a "source:jar" goal on the targeted project
+         * @param pomFilePath the pom.xml file representing the maven project
+         * @param options supplemental options
+         */
+        public static void sourcesJar(String pomFilePath, String... options) {
+
+            String optionAsString = processOptions(options);
+            mvn.run("building sources jar for " + pomFilePath, "-f " + pomFilePath, optionAsString, "generate-sources source:jar");
+
+        }
+
+        private static String processOptions(String[] options) {
+            if (options == null) {
+                return "";
+            }
+            String optionAsString = "";
+            for (String s : options) {
+                optionAsString += " " + s;
+            }
+            return optionAsString;
+        }
+
+    }
+
+
+    private static String extractVersion(String pomFilePath) throws IOException {
+        return EffectivePom.resolve(pomFilePath).version;
+    }
+
+    private static String extractArtifactId(String pomFilePath) throws IOException {
+        return EffectivePom.resolve(pomFilePath).artifactId;
+    }
+
+    private static String extractGroupId(String pomFilePath) throws IOException {
+        return EffectivePom.resolve(pomFilePath).groupId;
+    }
+
+    /**
+     * extracts the "groupId:artifactId" coordinates this pom depends on: its parent and its direct dependencies
+     */
+    private static List<String> extractDependencies(String pomFilePath) throws IOException {
+        EffectivePom pom = EffectivePom.resolve(pomFilePath);
+        List<String> dependencies = new ArrayList<>();
+        if (!pom.model.parentArtifactId.isEmpty()) {
+            dependencies.add(pom.interpolate(pom.model.parentGroupId) + ":" + pom.interpolate(pom.model.parentArtifactId));
+        }
+        for (PomDependency dependency : pom.dependencies) {
+            dependencies.add(dependency.groupId + ":" + dependency.artifactId);
+        }
+        return dependencies;
+    }
+
+    /**
+     * the effective values of a pom: groupId, version and properties are inherited through the {@code <parent>} chain,
+     * and {@code ${...}} expressions are interpolated with the project coordinates, the properties,
+     * the environment ({@code env.*}) and the system properties.
+     * Parents are looked up from their relativePath, then in the local repository.
+     * Resolved poms are memoized: a parent shared by many modules is resolved once, and re-resolved only if
+     * it changed on disk. Dependency management, profiles and plugins are not part of this model.
+     */
+    public static class EffectivePom {
+        private static final Map<Path, EffectivePom> cache = new ConcurrentHashMap<>();
+        private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+        private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+        final PomModel model;
+        final EffectivePom parent;
+        String groupId;
+        String artifactId;
+        String version;
+        /**
+         * inherited and declared properties, before interpolation: inherited values are interpolated in the child context
+         */
+        final Map<String, String> declaredProperties = new LinkedHashMap<>();
+        final Map<String, String> properties = new LinkedHashMap<>();
+        final List<PomDependency> dependencies = new ArrayList<>();
+
+        private EffectivePom(PomModel model, EffectivePom parent) {
+            this.model = model;
+            this.parent = parent;
+            this.groupId = model.groupId.isEmpty() ? model.parentGroupId : model.groupId;
+            this.artifactId = model.artifactId;
+            this.version = model.version.isEmpty() ? model.parentVersion : model.version;
+            if (parent != null) {
+                declaredProperties.putAll(parent.declaredProperties);
+            }
+            declaredProperties.putAll(model.properties);
+            properties.putAll(declaredProperties);
+        }
+
+        /**
+         * resolves the effective model of a pom file
+         * @param pomFilePath the pom file to read
+         * @return the effective pom
+         * @throws IOException if the pom file cannot be read
+         */
+        public static EffectivePom resolve(String pomFilePath) throws IOException {
+            return resolve(PomModel.read(pomFilePath), new HashSet<>());
+        }
+
+        private static EffectivePom resolve(PomModel model, Set<Path> visiting) throws IOException {
+            if (!visiting.add(model.pomPath)) {
+                throw new IOException("cycle in the parent chain of " + model.pomPath);
+            }
+            PomModel parentModel = findParent(model);
+            EffectivePom parent = parentModel == null ? null : resolve(parentModel, visiting);
+            EffectivePom cached = cache.get(model.pomPath);
+            if (cached != null && cached.model == model && cached.parent == parent) {
+                return cached;
+            }
+            EffectivePom pom = new EffectivePom(model, parent);
+            pom.interpolateAll();
+            cache.put(model.pomPath, pom);
+            return pom;
+        }
+
+        private static PomModel findParent(PomModel model) throws IOException {
+            if (model.parentArtifactId.isEmpty()) {
+                return null;
+            }
+            if (!model.parentRelativePath.isEmpty()) {
+                File relative = model.pomPath.getParent().resolve(model.parentRelativePath).toFile();
+                if (relative.isDirectory()) {
+                    relative = new File(relative, "pom.xml");
+                }
+                if (relative.isFile()) {
+                    PomModel candidate = PomModel.read(relative.getPath());
+                    String candidateGroupId = candidate.groupId.isEmpty() ? candidate.parentGroupId : candidate.groupId;
+                    if (candidate.artifactId.equals(model.parentArtifactId) && candidateGroupId.equals(model.parentGroupId)) {
+                        return candidate;
+                    }
+                }
+            }
+            File repositoryPom = new File(localRepository(), model.parentGroupId.replace('.', '/') + "/" + model.parentArtifactId + "/"
+                    + model.parentVersion + "/" + model.parentArtifactId + "-" + model.parentVersion + ".pom");
+            if (repositoryPom.isFile()) {
+                return PomModel.read(repositoryPom.getPath());
+            }
+            LOGGER.fine("parent of " + model.pomPath + " not found, only its declared coordinates are inherited");
+            return null;
+        }
+
+        static File localRepository() {
+            String repository = System.getProperty("maven.repo.local");
+            if (repository != null) {
+                return new File(repository);
+            }
+            return new File(System.getProperty("user.home"), ".m2/repository");
+        }
+
+        private void interpolateAll() {
+            groupId = interpolate(groupId);
+            artifactId = interpolate(artifactId);
+            version = interpolate(version);
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                property.setValue(interpolate(property.getValue()));
+            }
+            for (PomDependency declared : model.dependencies) {
+                PomDependency dependency = new PomDependency();
+                dependency.groupId = interpolate(declared.groupId);
+                dependency.artifactId = interpolate(declared.artifactId);
+                dependency.version = interpolate(declared.version);
+                dependency.type = interpolate(declared.type);
+                dependency.classifier = interpolate(declared.classifier);
+                dependency.scope = interpolate(declared.scope);
+                dependencies.add(dependency);
+            }
+        }
+
+        /**
+         * interpolates the {@code ${...}} expressions of a value, unknown expressions are kept as is
+         * @param value the value to interpolate
+         * @return the interpolated value
+         */
+        public String interpolate(String value) {
+            return interpolate(value, 0);
+        }
+
+        private String interpolate(String value, int depth) {
+            if (value == null || value.indexOf("${") < 0 || depth > MAX_INTERPOLATION_DEPTH) {
+                return value;
+            }
+            Matcher matcher = EXPRESSION.matcher(value);
+            StringBuffer result = new StringBuffer();
+            while (matcher.find()) {
+                String resolved = lookup(matcher.group(1));
+                String replacement = resolved == null ? matcher.group() : interpolate(resolved, depth + 1);
+                matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+            }
+            matcher.appendTail(result);
+            return result.toString();
+        }
+
+        private String lookup(String expression) {
+            String key = expression.startsWith("pom.") ? "project." + expression.substring(4) : expression;
+            switch (key) {
+                case "project.groupId":
+                case "groupId":
+                    return groupId;
+                case "project.artifactId":
+                case "artifactId":
+                    return artifactId;
+                case "project.version":
+                case "version":
+                    return version;
+                case "project.packaging":
+                    return model.packaging;
+                case "project.basedir":
+                case "basedir":
+                    return model.pomPath.getParent().toString();
+                case "project.parent.groupId":
+                    return parent != null ? parent.groupId : model.parentGroupId;
+                case "project.parent.artifactId":
+                    return model.parentArtifactId;
+                case "project.parent.version":
+                    return parent != null ? parent.version : model.parentVersion;
+                default:
+                    break;
+            }
+            if (properties.containsKey(key)) {
+                return properties.get(key);
+            }
+            if (key.startsWith("env.")) {
+                return System.getenv(key.substring(4));
+            }
+            return System.getProperty(key);
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public Map<String, String> getProperties() {
+            return Collections.unmodifiableMap(properties);
+        }
+
+        public List<PomDependency> getDependencies() {
+            return Collections.unmodifiableList(dependencies);
+        }
+
+        /**
+         * @return the effective parent, or null if the pom has no parent or if it could not be found
+         */
+        public EffectivePom getParent() {
+            return parent;
+        }
+    }
+
+    /**
+     * the content of a pom.xml file, as declared (without inheritance nor interpolation).
+     * Poms are read with a streaming StAX parser in a single pass, and cached by path and modification time
+     * so that reading the same pom several times only costs a file stat.
+     */
+    public static class PomModel {
+        private static final XMLInputFactory XML_INPUT_FACTORY = newXmlInputFactory();
+        private static final Map<Path, PomModel> cache = new ConcurrentHashMap<>();
+
+        final Path pomPath;
+        final long lastModified;
+        final long size;
+
+        String groupId = "";
+        String artifactId = "";
+        String version = "";
+        String packaging = "jar";
+        String parentGroupId = "";
+        String parentArtifactId = "";
+        String parentVersion = "";
+        String parentRelativePath = "../pom.xml";
+        final Map<String, String> properties = new LinkedHashMap<>();
+        final List<String> modules = new ArrayList<>();
+        final List<PomDependency> dependencies = new ArrayList<>();
+
+        private PomModel(Path pomPath, long lastModified, long size) {
+            this.pomPath = pomPath;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        private static XMLInputFactory newXmlInputFactory() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+        }
+
+        /**
+         * reads a pom file, from the cache if it did not change since it was last read
+         * @param pomFilePath the pom file to read
+         * @return the pom model
+         * @throws IOException if the file cannot be read or is not a valid xml file
+         */
+        public static PomModel read(String pomFilePath) throws IOException {
+            Path pomPath = new File(pomFilePath).toPath().toAbsolutePath().normalize();
+            Trace trace = Trace.begin(Trace.Operation.POM_READ, pomPath.toString());
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(pomPath, BasicFileAttributes.class);
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                trace.bytes(attributes.size());
+                PomModel cached = cache.get(pomPath);
+                if (cached != null && cached.lastModified == lastModified && cached.size == attributes.size()) {
+                    trace.cached(true).end(true);
+                    return cached;
+                }
+                PomModel model = new PomModel(pomPath, lastModified, attributes.size());
+                model.parse();
+                cache.put(pomPath, model);
+                trace.end(true);
+                return model;
+            } catch (IOException e) {
+                trace.end(false);
+                throw e;
+            }
+        }
+
+        private void parse() throws IOException {
+            Deque<String> elements = new ArrayDeque<>();
+            StringBuilder text = new StringBuilder();
+            PomDependency dependency = null;
+            try (InputStream is = Files.newInputStream(pomPath)) {
+                XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+                try {
+                    while (reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            elements.addLast(reader.getLocalName());
+                            text.setLength(0);
+                            if (elements.size() == 3 && "dependency".equals(reader.getLocalName()) && isUnder(elements, "dependencies")) {
+                                dependency = new PomDependency();
+                            }
+                        } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                            text.append(reader.getText());
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                            String value = text.toString().trim();
+                            if (dependency != null && elements.size() == 4) {
+                                dependency.set(reader.getLocalName(), value);
+                            } else if (dependency != null && elements.size() == 3) {
+                                dependencies.add(dependency);
+                                dependency = null;
+                            } else {
+                                collect(elements, reader.getLocalName(), value);
+                            }
+                            elements.removeLast();
+                            text.setLength(0);
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException("unable to parse " + pomPath, e);
+            }
+        }
+
+        private static boolean isUnder(Deque<String> elements, String parent) {
+            Iterator<String> iterator = elements.descendingIterator();
+            iterator.next();
+            return iterator.hasNext() && parent.equals(iterator.next());
+        }
+
+        private void collect(Deque<String> elements, String name, String value) {
+            if (elements.size() == 2) {
+                switch (name) {
+                    case "groupId":
+                        groupId = value;
+                        break;
+                    case "artifactId":
+                        artifactId = value;
+                        break;
+                    case "version":
+                        version = value;
+                        break;
+                    case "packaging":
+                        packaging = value;
+                        break;
+                    default:
+                        break;
+                }
+            } else if (elements.size() == 3 && isUnder(elements, "parent")) {
+                switch (name) {
+                    case "groupId":
+                        parentGroupId = value;
+                        break;
+                    case "artifactId":
+                        parentArtifactId = value;
+                        break;
+                    case "version":
+                        parentVersion = value;
+                        break;
+                    case "relativePath":
+                        parentRelativePath = value;
+                        break;
+                    default:
+                        break;
+                }
+            } else if (elements.size() == 3 && isUnder(elements, "properties")) {
+                properties.put(name, value);
+            } else if (elements.size() == 3 && isUnder(elements, "modules") && "module".equals(name)) {
+                modules.add(value);
+            }
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getPackaging() {
+            return packaging;
+        }
+
+        public Map<String, String> getProperties() {
+            return Collections.unmodifiableMap(properties);
+        }
+
+        public List<String> getModules() {
+            return Collections.unmodifiableList(modules);
+        }
+
+        public List<PomDependency> getDependencies() {
+            return Collections.unmodifiableList(dependencies);
+        }
+    }
+
+    /**
+     * a dependency declared in a pom
+     */
+    public static class PomDependency {
+        String groupId = "";
+        String artifactId = "";
+        String version = "";
+        String type = "jar";
+        String classifier = "";
+        String scope = "compile";
+
+        void set(String name, String value) {
+            switch (name) {
+                case "groupId":
+                    groupId = value;
+                    break;
+                case "artifactId":
+                    artifactId = value;
+                    break;
+                case "version":
+                    version = value;
+                    break;
+                case "type":
+                    type = value;
+                    break;
+                case "classifier":
+                    classifier = value;
+                    break;
+                case "scope":
+                    scope = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public String getArtifactId() {
+            return artifactId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+    }
+
+    /**
+     * computes a fingerprint of the inputs of a maven invocation: the pom file, the whole src/ tree (hashed in parallel)
+     * and the invocation arguments (goals, options and user properties)
+     */
+    static String inputsFingerprint(String projectDir, String pomFilePath, String... invocationArguments) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(hashFile(new File(pomFilePath).toPath()).getBytes(StandardCharsets.UTF_8));
+        Path srcPath = new File(projectDir, "src").toPath();
+        if (Files.isDirectory(srcPath)) {
+            List<Path> sources;
+            try (Stream<Path> stream = Files.walk(srcPath)) {
+                sources = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            List<String> hashes = sources.parallelStream()
+                    .map(source -> srcPath.relativize(source).toString().replace(File.separatorChar, '/') + "=" + hashFile(source))
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (String hash : hashes) {
+                digest.update(hash.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        for (String argument : invocationArguments) {
+            digest.update(argument.trim().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    static String hashFile(Path file) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = Files.newInputStream(file)) {
+            int length;
+            while ((length = is.read(buffer)) >= 0) {
+                digest.update(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toHex(digest.digest());
+    }
+
+    static String hashString(String value) {
+        return toHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Copy files from an origin to a target with inclusions and exclusions based on the file name
+     * @param origin the path to copy from
+     * @param target the path to copy to
+     * @param includePredicate a lambda expression to keep files to copy
+     * @param excludePredicate a lambda expression to exclude files from copy
+     * @return true if the copy succeeded
+     */
+    public static boolean copy(String origin, String target, Predicate<String> includePredicate, Predicate<String> excludePredicate) {
+        return prepareCopy(origin, target)
+                .include(includePredicate)
+                .exclude(excludePredicate)
+                .execute();
+    }
+
+    /**
+     * prepares a copy from an origin to a target, to be configured then executed
+     * @param origin file (can be a file or a directory) to be copied
+     * @param target file (can be a file or a directory)
+     * @return an instance of CopyOperation
+     */
+    public static CopyOperation prepareCopy(String origin, String target) {
+        return new CopyOperation(origin, target);
+    }
+
+
+    /**
+     * a path is selected if it matches the include predicate or does not match the exclude predicate,
+     * every path being selected when no predicate is given
+     */
+    static boolean selected(String path, Predicate<String> includePredicate, Predicate<String> excludePredicate) {
+        if (includePredicate == null && excludePredicate == null) {
+            return true;
+        }
+        return (includePredicate != null && includePredicate.test(path))
+                || (excludePredicate != null && !excludePredicate.test(path));
+    }
+
+    /**
+     * represents a copy of a file or of a directory tree.
+     * Directories are walked and copied in parallel on a fork-join pool, big files are copied through
+     * FileChannel.transferTo so that the kernel moves the bytes, and files can be hard linked instead of copied
+     * when the origin and the target are on the same file store.
+     * In sync mode, files whose size and modification time (or content hash) match the target are skipped,
+     * and target files which no longer exist in the origin can be deleted.
+     * A path of the tree is copied if it matches the include predicate or does not match the exclude predicate
+     * (predicates receive the full path of the source).
+     */
+    public static class CopyOperation {
+        static final long TRANSFER_THRESHOLD = 1024 * 1024;
+
+        final String origin;
+        final String target;
+        Predicate<String> includePredicate;
+        Predicate<String> excludePredicate;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean hardLinks = false;
+        boolean sync = false;
+        boolean checksum = false;
+        boolean deleteExtraneous = false;
+
+        final AtomicLong files = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong deleted = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        long elapsedMillis;
+        private boolean linkable;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        CopyOperation(String origin, String target) {
+            this.origin = origin;
+            this.target = target;
+        }
+
+        public CopyOperation include(Predicate<String> includePredicate) {
+            this.includePredicate = includePredicate;
+            return this;
+        }
+
+        public CopyOperation exclude(Predicate<String> excludePredicate) {
+            this.excludePredicate = excludePredicate;
+            return this;
+        }
+
+        /**
+         * the number of threads copying the tree; on Java 21 every directory is copied on its own virtual thread instead
+         */
+        public CopyOperation threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+
+        /**
+         * creates hard links instead of copying the files, when the origin and the target are on the same file store
+         */
+        public CopyOperation hardLinks() {
+            this.hardLinks = true;
+            return this;
+        }
+
+        /**
+         * only copies the files whose size or modification time differ from the target,
+         * copied files get the modification time of their origin
+         */
+        public CopyOperation sync() {
+            this.sync = true;
+            return this;
+        }
+
+        /**
+         * in sync mode, compares the content hash of the files having the same size instead of their modification time
+         */
+        public CopyOperation checksum() {
+            this.sync = true;
+            this.checksum = true;
+            return this;
+        }
+
+        /**
+         * in sync mode, deletes the target files and directories which do not exist in the origin
+         */
+        public CopyOperation deleteExtraneous() {
+            this.sync = true;
+            this.deleteExtraneous = true;
+            return this;
+        }
+
+        /**
+         * @return the number of files copied (or linked) by the last execution
+         */
+        public long files() {
+            return files.get();
+        }
+
+        /**
+         * @return the number of bytes copied (or linked) by the last execution
+         */
+        public long bytes() {
+            return bytes.get();
+        }
+
+        /**
+         * @return the number of unchanged files skipped by the last execution in sync mode
+         */
+        public long skipped() {
+            return skipped.get();
+        }
+
+        /**
+         * @return the number of extraneous target files and directories deleted by the last execution
+         */
+        public long deleted() {
+            return deleted.get();
+        }
+
+        public long elapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * executes the copy and logs its throughput
+         * @return true if every selected file has been copied
+         */
+        public boolean execute() {
+            return run().succeeded();
+        }
+
+        /**
+         * executes the copy on the {@link #asyncExecutor()}
+         * @return the future result of the copy
+         */
+        public CompletableFuture<Result> executeAsync() {
+            return CompletableFuture.supplyAsync(this::run, asyncExecutor());
+        }
+
+        Result run() {
+            lock.lock();
+            try {
+                return copy();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Result copy() {
+            Trace trace = Trace.begin(Trace.Operation.COPY, origin).target(target);
+            long startMillis = System.currentTimeMillis();
+            long start = System.nanoTime();
+            files.set(0);
+            bytes.set(0);
+            skipped.set(0);
+            deleted.set(0);
+            errors.set(0);
+            Path originPath = new File(origin).toPath();
+            Path targetPath = new File(target).toPath();
+            try {
+                if (Files.isRegularFile(originPath)) {
+                    Path fileTargetPath = Files.isDirectory(targetPath) ? targetPath.resolve(originPath.getFileName()) : targetPath;
+                    linkable = hardLinks && sameFileStore(originPath, fileTargetPath.toAbsolutePath().getParent());
+                    copyFile(originPath, Files.readAttributes(originPath, BasicFileAttributes.class), fileTargetPath);
+                } else if (Files.isDirectory(originPath)) {
+                    Files.createDirectories(targetPath);
+                    linkable = hardLinks && sameFileStore(originPath, targetPath);
+                    ReactorThreads.invoke(new DirectoryCopyTask(originPath, targetPath), threads);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.throwing("Reactor", "copy", e);
+                errors.incrementAndGet();
+            }
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logInfo(String.format("copy : %s --> %s, %d files (%d bytes) in %d ms, %d unchanged, %d deleted, %.0f files/s, %.1f MB/s",
+                    origin, target, files(), bytes(), elapsedMillis, skipped(), deleted(),
+                    files() * 1000.0 / Math.max(1, elapsedMillis), bytes() / 1048.576 / Math.max(1, elapsedMillis)));
+            trace.files(files()).bytes(bytes()).end(errors.get() == 0);
+            String message = "copy : " + origin + " --> " + target;
+            if (errors.get() > 0) {
+                Result result = new Result(Result.Type.COPY, "", message, Status.KO,
+                        startMillis, startMillis + elapsedMillis, errors.get() + " files could not be copied");
+                results.add(result);
+                return result;
+            }
+            return new Result(Result.Type.COPY, "", message, Status.OK, startMillis, startMillis + elapsedMillis, "");
+        }
+
+        boolean selected(Path source) {
+            return Reactor.selected(source.toString(), includePredicate, excludePredicate);
+        }
+
+        private static boolean sameFileStore(Path origin, Path target) {
+            try {
+                return Files.getFileStore(origin).equals(Files.getFileStore(target));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        void copyFile(Path source, BasicFileAttributes attributes, Path destination) {
+            try {
+                if (sync && unchanged(source, attributes, destination)) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                LOGGER.finer("copying : " + source.getFileName() + " to " + destination);
+                long size = attributes.size();
+                Path parent = destination.getParent();
+                if (parent != null && !Files.isDirectory(parent)) {
+                    Files.createDirectories(parent);
+                }
+                if (!(linkable && link(source, destination))) {
+                    if (size >= TRANSFER_THRESHOLD) {
+                        transfer(source, destination, size);
+                    } else {
+                        Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    if (sync) {
+                        Files.setLastModifiedTime(destination, attributes.lastModifiedTime());
+                    }
+                }
+                files.incrementAndGet();
+                bytes.addAndGet(size);
+            } catch (IOException e) {
+                logError("unable to copy " + source + " to " + destination, "copy", e);
+                errors.incrementAndGet();
+            }
+        }
+
+        private boolean unchanged(Path source, BasicFileAttributes attributes, Path destination) {
+            BasicFileAttributes targetAttributes;
+            try {
+                targetAttributes = Files.readAttributes(destination, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                return false;
+            }
+            if (!targetAttributes.isRegularFile() || targetAttributes.size() != attributes.size()) {
+                return false;
+            }
+            if (checksum) {
+                return hashFile(source).equals(hashFile(destination));
+            }
+            return targetAttributes.lastModifiedTime().toMillis() == attributes.lastModifiedTime().toMillis();
+        }
+
+        private void deleteExtraneous(Path targetDir, Set<String> sourceNames) throws IOException {
+            if (!Files.isDirectory(targetDir)) {
+                return;
+            }
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(targetDir)) {
+                for (Path child : children) {
+                    if (!sourceNames.contains(child.getFileName().toString())) {
+                        LOGGER.finer("deleting extraneous : " + child);
+                        if (deleteDirectory(child.toFile())) {
+                            deleted.incrementAndGet();
+                        } else {
+                            logInfo("unable to delete extraneous " + child);
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        }
+
+        private boolean link(Path source, Path destination) {
+            try {
+                Files.deleteIfExists(destination);
+                Files.createLink(destination, source);
+                return true;
+            } catch (IOException | UnsupportedOperationException e) {
+                linkable = false;
+                return false;
+            }
+        }
+
+        private static void transfer(Path source, Path destination, long size) throws IOException {
+            // the destination may be a hard link to another file, it must be replaced and not overwritten
+            Files.deleteIfExists(destination);
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+        }
+
+        /**
+         * copies the content of one directory, forking a task per sub directory and per big file
+         */
+        class DirectoryCopyTask implements Callable<Void> {
+            final Path sourceDir;
+            final Path targetDir;
+
+            DirectoryCopyTask(Path sourceDir, Path targetDir) {
+                this.sourceDir = sourceDir;
+                this.targetDir = targetDir;
+            }
+
+            @Override
+            public Void call() {
+                List<Callable<Void>> subtasks = new ArrayList<>();
+                Set<String> sourceNames = new HashSet<>();
+                try (ReactorThreads.AutoCloseableNoException permit = ReactorThreads.ioPermit();
+                     DirectoryStream<Path> children = Files.newDirectoryStream(sourceDir)) {
+                    for (Path child : children) {
+                        String name = child.getFileName().toString();
+                        sourceNames.add(name);
+                        Path targetChild = targetDir.resolve(name);
+                        BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attributes.isDirectory()) {
+                            if (selected(child)) {
+                                Files.createDirectories(targetChild);
+                            }
+                            subtasks.add(new DirectoryCopyTask(child, targetChild));
+                        } else if (selected(child)) {
+                            if (attributes.size() >= TRANSFER_THRESHOLD) {
+                                subtasks.add(() -> {
+                                    try (ReactorThreads.AutoCloseableNoException filePermit = ReactorThreads.ioPermit()) {
+                                        copyFile(child, attributes, targetChild);
+                                    }
+                                    return null;
+                                });
+                            } else {
+                                copyFile(child, attributes, targetChild);
+                            }
+                        }
+                    }
+                    if (deleteExtraneous) {
+                        deleteExtraneous(targetDir, sourceNames);
+                    }
+                } catch (IOException e) {
+                    logError("unable to copy directory " + sourceDir, "copy", e);
+                    errors.incrementAndGet();
+                }
+                ReactorThreads.invokeAll(subtasks);
+                return null;
+            }
+        }
+    }
+
+
+    /**
+     * traces an operation as a Java Flight Recorder event, see ReactorEvents.
+     * When the JVM has no JFR the trace only holds its values; when JFR is not recording,
+     * the event is dropped without its fields being set.
+     */
+    static final class Trace {
+        enum Operation {COPY, ZIP, UNZIP, FIND, DELETE, MOVE, POM_READ, MAVEN}
+
+        /**
+         * emits the events of the traces; ReactorEvents is only reached through this interface, so that the
+         * rest of the Reactor compiles against the Java 8 API, which has no jdk.jfr
+         */
+        interface Recorder {
+            Object begin(Operation operation);
+
+            void commit(Object event, Trace trace);
+        }
+
+        private static final Recorder RECORDER = jfrRecorder();
+
+        private final Object event;
+        String path;
+        String target = "";
+        long files;
+        long bytes;
+        boolean success;
+        boolean cached;
+        String goals = "";
+        String engine = "";
+        int exitCode;
+
+        private Trace(Object event, String path) {
+            this.event = event;
+            this.path = path;
+        }
+
+        private static Recorder jfrRecorder() {
+            try {
+                Class.forName("jdk.jfr.Event");
+                return (Recorder) Class.forName("org.javen.integration.ReactorEvents").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+
+        static Trace begin(Operation operation, String path) {
+            return new Trace(RECORDER != null ? RECORDER.begin(operation) : null, path);
+        }
+
+        Trace target(String target) {
+            this.target = target;
+            return this;
+        }
+
+        Trace files(long files) {
+            this.files = files;
+            return this;
+        }
+
+        Trace bytes(long bytes) {
+            this.bytes = bytes;
+            return this;
+        }
+
+        Trace cached(boolean cached) {
+            this.cached = cached;
+            return this;
+        }
+
+        Trace goals(String goals) {
+            this.goals = goals;
+            return this;
+        }
+
+        Trace engine(String engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        Trace exitCode(int exitCode) {
+            this.exitCode = exitCode;
+            return this;
+        }
+
+        void end(boolean success) {
+            this.success = success;
+            if (event != null) {
+                RECORDER.commit(event, this);
+            }
+        }
+    }
+
+
+    /**
+     * logs a message in info using the Reactor logger
+     * @param message
+     */
+    public static void logInfo(String message) {
+        LOGGER.info(message);
+    }
+
+    /**
+     * Logs an error using the Reactor logger
+     * @param message
+     * @param method
+     * @param throwable
+     */
+    public static void logError(String message, String method, Throwable throwable) {
+        LOGGER.severe(message + " : " + throwable.getMessage());
+        LOGGER.throwing(message, method, throwable);
+    }
+
+
+    /**
+     * gets the Reactor Logger
+     * @return an instance of JUL Logger
+     */
+    public static Logger getLogger() {
+        return LOGGER;
+    }
+
+
+    /** Utility method to avoid using Arrays to get a list of element
+     *
+     * @param elements elements to convert to a list
+     * @param <T> the type of an element of that list
+     * @return a java.util.List of elements
+     */
+    public static <T> List<T> listOf(T... elements) {
+        return new ArrayList<>(Arrays.asList(elements));
+
+    }
+
+
+    /**
+     * prints the summary of the integration operation
+     */
+    public static void printSummary() {
+        outputSection("Build Summary");
+        List<Result> entries = results.snapshot();
+        System.out.println("Successful commands :");
+        for (Result result : entries) {
+            if (result.succeeded()) {
+                System.out.println(result.summaryLine());
+            }
+        }
+        System.out.println();
+        System.out.println("Failed  commands :");
+        for (Result result : entries) {
+            if (!result.succeeded()) {
+                System.out.println(result.summaryLine());
+            }
+        }
+        System.out.println();
+        StringBuilder totals = new StringBuilder("Totals :");
+        for (Status status : Status.values()) {
+            totals.append(" ").append(status.label).append(" ").append(results.count(status));
+        }
+        if (results.evicted() > 0) {
+            totals.append(" (").append(results.evicted()).append(" oldest results not listed)");
+        }
+        System.out.println(totals);
+        printMojoTimings(10);
+    }
+
+    private static void printMojoTimings(int limit) {
+        List<MojoTiming> timings = mojoTimings();
+        if (timings.isEmpty()) {
+            return;
+        }
+        timings.sort(Comparator.comparingLong((MojoTiming timing) -> timing.durationMillis).reversed());
+        System.out.println();
+        System.out.println("Slowest mojo executions :");
+        for (MojoTiming timing : timings.subList(0, Math.min(limit, timings.size()))) {
+            System.out.println(String.format("%9.1f s  %s (%s) @ %s", timing.durationMillis / 1000.0, timing.mojo, timing.execution, timing.project));
+        }
+
+        Map<String, Long> totals = new HashMap<>();
+        for (MojoTiming timing : timings) {
+            totals.merge(timing.mojo, timing.durationMillis, Long::sum);
+        }
+        System.out.println();
+        System.out.println("Slowest mojos across all projects :");
+        totals.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(total -> System.out.println(String.format("%9.1f s  %s", total.getValue() / 1000.0, total.getKey())));
+    }
+
+    /**
+     * @return the registry of the results of the maven invocations, and of the failed file operations
+     */
+    public static ResultRegistry results() {
+        return results;
+    }
+
+    /**
+     * @return the timings of all the mojo executions observed in the maven outputs so far
+     */
+    public static List<MojoTiming> mojoTimings() {
+        synchronized (mojoTimings) {
+            return new ArrayList<>(mojoTimings);
+        }
+    }
+
+    /**
+     * exports the mojo timings, as JSON if the file name ends with ".json", as CSV otherwise
+     * @param target the file to write
+     * @return true if the export succeeded
+     */
+    public static boolean exportMojoTimings(String target) {
+        List<MojoTiming> timings = mojoTimings();
+        StringBuilder content = new StringBuilder();
+        if (target.endsWith(".json")) {
+            content.append("[");
+            for (int i = 0; i < timings.size(); i++) {
+                content.append(i == 0 ? "\n" : ",\n").append("  ").append(timings.get(i).toJson());
+            }
+            content.append("\n]\n");
+        } else {
+            content.append("invocation,project,mojo,execution,start,durationMillis\n");
+            for (MojoTiming timing : timings) {
+                content.append(timing.toCsv()).append("\n");
+            }
+        }
+        try {
+            Files.write(new File(target).toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logError("unable to export the mojo timings", "exportMojoTimings", e);
+            results.add(Result.failure(Result.Type.EXPORT, "export mojo timings : " + target, e.toString()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * the status of a recorded operation
+     */
+    public enum Status {
+        OK("OK"), KO("KO"), UP_TO_DATE("UP-TO-DATE"), FROM_CACHE("FROM-CACHE"), SKIPPED("SKIPPED"), TIMED_OUT("TIMED-OUT");
+
+        final String label;
+
+        Status(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * the result of an operation: a maven invocation, a project build or a file operation
+     */
+    public static final class Result {
+        public enum Type {MAVEN, BUILD, COPY, ZIP, UNZIP, FIND, EXPORT}
+
+        final Type type;
+        final String project;
+        final String message;
+        final Status status;
+        final long start;
+        final long end;
+        final int exitCode;
+        final String error;
+        /**
+         * the mojos run by a maven invocation, in order
+         */
+        List<MojoTiming> mojos = Collections.emptyList();
+
+        Result(Type type, String project, String message, Status status, long start, long end, int exitCode, String error) {
+            this.type = type;
+            this.project = project;
+            this.message = message;
+            this.status = status;
+            this.start = start;
+            this.end = end;
+            this.exitCode = exitCode;
+            this.error = error;
+        }
+
+        Result(Type type, String project, String message, Status status, long start, long end, String error) {
+            this(type, project, message, status, start, end, status == Status.OK || status == Status.UP_TO_DATE || status == Status.FROM_CACHE ? 0 : -1, error);
+        }
+
+        static Result failure(Type type, String message, String error) {
+            return failure(type, "", message, error);
+        }
+
+        static Result failure(Type type, String project, String message, String error) {
+            long now = System.currentTimeMillis();
+            return new Result(type, project, message, Status.KO, now, now, error);
+        }
+
+        static Result skipped(String project, String message, String reason) {
+            long now = System.currentTimeMillis();
+            return new Result(Type.BUILD, project, message, Status.SKIPPED, now, now, reason);
+        }
+
+        Result withMessage(String message) {
+            return new Result(type, project, message, status, start, end, exitCode, error);
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getProject() {
+            return project;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the start time, in milliseconds since the epoch
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return the end time, in milliseconds since the epoch
+         */
+        public long getEnd() {
+            return end;
+        }
+
+        public long getDurationMillis() {
+            return end - start;
+        }
+
+        /**
+         * @return the process exit code, -1 when there is none (failed file operation, launch error)
+         */
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * @return the error description, empty on success
+         */
+        public String getError() {
+            return error;
+        }
+
+        public boolean succeeded() {
+            return status == Status.OK || status == Status.UP_TO_DATE || status == Status.FROM_CACHE;
+        }
+
+        String summaryLine() {
+            StringBuilder line = new StringBuilder(status.label).append(" -> ").append(message);
+            if (end > start) {
+                line.append(String.format(" (%.1f s)", getDurationMillis() / 1000.0));
+            }
+            if (!error.isEmpty()) {
+                line.append(" : ").append(error);
+            }
+            return line.toString();
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + summaryLine();
+        }
+    }
+
+    /**
+     * a registry of results, safe for concurrent producers. Only the most recent {@code capacity} results are retained
+     * (system property javen.results.capacity, 100000 by default), the counts by status cover all the recorded results.
+     */
+    public static final class ResultRegistry {
+        private final Queue<Result> entries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final LongAdder evicted = new LongAdder();
+        private final Map<Status, LongAdder> counts = new EnumMap<>(Status.class);
+        private final int capacity;
+
+        ResultRegistry(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            for (Status status : Status.values()) {
+                counts.put(status, new LongAdder());
+            }
+        }
+
+        /**
+         * records a result
+         * @param result the result to record
+         */
+        public void add(Result result) {
+            entries.add(result);
+            counts.get(result.status).increment();
+            if (size.incrementAndGet() > capacity && entries.poll() != null) {
+                size.decrementAndGet();
+                evicted.increment();
+            }
+        }
+
+        /**
+         * @return the retained results, in recording order
+         */
+        public List<Result> snapshot() {
+            return new ArrayList<>(entries);
+        }
+
+        /**
+         * @param status a status
+         * @return the retained results having this status, in recording order
+         */
+        public List<Result> snapshot(Status status) {
+            return entries.stream().filter(result -> result.status == status).collect(Collectors.toList());
+        }
+
+        /**
+         * @param status a status
+         * @return the number of results recorded with this status, including the evicted ones
+         */
+        public long count(Status status) {
+            return counts.get(status).sum();
+        }
+
+        /**
+         * @return the number of results no longer retained
+         */
+        public long evicted() {
+            return evicted.sum();
+        }
+
+        /**
+         * forgets all the results
+         */
+        public void clear() {
+            entries.clear();
+            size.set(0);
+            evicted.reset();
+            counts.values().forEach(LongAdder::reset);
+        }
+    }
+
+    /**
+     * the duration of one mojo execution, as observed in a maven output
+     */
+    public static class MojoTiming {
+        final String invocation;
+        final String project;
+        final String mojo;
+        final String execution;
+        final long start;
+        final long durationMillis;
+
+        MojoTiming(String invocation, String project, String mojo, String execution, long start, long durationMillis) {
+            this.invocation = invocation;
+            this.project = project;
+            this.mojo = mojo;
+            this.execution = execution;
+            this.start = start;
+            this.durationMillis = durationMillis;
+        }
+
+        public String getProject() {
+            return project;
+        }
+
+        public String getMojo() {
+            return mojo;
+        }
+
+        public String getExecution() {
+            return execution;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        String toJson() {
+            return "{\"invocation\": " + jsonString(invocation) + ", \"project\": " + jsonString(project)
+                    + ", \"mojo\": " + jsonString(mojo) + ", \"execution\": " + jsonString(execution)
+                    + ", \"start\": " + start + ", \"durationMillis\": " + durationMillis + "}";
+        }
+
+        String toCsv() {
+            return csvString(invocation) + "," + csvString(project) + "," + csvString(mojo) + "," + csvString(execution)
+                    + "," + start + "," + durationMillis;
+        }
+
+        private static String jsonString(String value) {
+            StringBuilder sb = new StringBuilder("\"");
+            for (char c : value.toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.append('"').toString();
+        }
+
+        private static String csvString(String value) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+    }
+
+    /**
+     * measures mojo executions from a maven output: a mojo runs from its "--- plugin:version:goal (execution) @ project ---"
+     * line until the next one, or until the end of the project build. Quiet (-q) invocations print no such line.
+     */
+    static class MojoTimer {
+        private static final Pattern MOJO_START = Pattern.compile("^\\[INFO\\] --- (\\S+) \\(([^)]*)\\) @ (\\S+) ---");
+        private static final Pattern PROJECT_END = Pattern.compile("^\\[INFO\\] (-{72}|BUILD (SUCCESS|FAILURE))");
+        private static final Pattern ANSI_ESCAPE = Pattern.compile("\u001B\\[[;\\d]*m");
+
+        private final String invocation;
+        private final List<MojoTiming> timings = new ArrayList<>();
+        private String mojo;
+        private String execution;
+        private String project;
+        private long start;
+
+        MojoTimer(String invocation) {
+            this.invocation = invocation;
+        }
+
+        synchronized void consumeLine(String line) {
+            long now = System.currentTimeMillis();
+            String plain = line.indexOf('\u001B') >= 0 ? ANSI_ESCAPE.matcher(line).replaceAll("") : line;
+            Matcher started = MOJO_START.matcher(plain);
+            if (started.find()) {
+                close(now);
+                mojo = started.group(1);
+                execution = started.group(2);
+                project = started.group(3);
+                start = now;
+            } else if (mojo != null && PROJECT_END.matcher(plain).find()) {
+                close(now);
+            }
+        }
+
+        synchronized List<MojoTiming> finish() {
+            close(System.currentTimeMillis());
+            return new ArrayList<>(timings);
+        }
+
+        private void close(long now) {
+            if (mojo != null) {
+                timings.add(new MojoTiming(invocation, project, mojo, execution, start, now - start));
+                mojo = null;
+            }
+        }
+    }
+
+    /**
+     * captures the output of one maven invocation: the lines are handed over a bounded queue to a pumping thread,
+     * which keeps the last ones in a ring buffer and writes all of them to a gzip-compressed log file.
+     * The producer blocks when the queue is full, so memory stays flat whatever the volume of the output.
+     * A log file under a project is written in target/javen-logs/.partial first and moved in place once the output ends,
+     * a clean of the project would otherwise delete it while maven runs.
+     */
+    static class OutputCapture implements InvocationOutputHandler {
+        static final int QUEUE_CAPACITY = 8192;
+        static final int MAX_LINE_LENGTH = 4096;
+        private static final String END = new String("end of output");
+        private static final AtomicInteger sequence = new AtomicInteger();
+
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final CountDownLatch pumped = new CountDownLatch(1);
+        private final String[] tail;
+        private final Consumer<String> listener;
+        private final File logFile;
+        private final File partialFile;
+        private int next;
+        private long lines;
+        private boolean closed;
+
+        /**
+         * @param logFile the gzip file receiving the whole output, null to only keep the tail
+         * @param tailLines the number of last lines kept in memory
+         * @param listener called with every line from the pumping thread
+         */
+        OutputCapture(File logFile, int tailLines, Consumer<String> listener) {
+            this.logFile = logFile;
+            this.partialFile = logFile == null || logFile.getAbsoluteFile().getParentFile().equals(new File("target/javen-logs").getAbsoluteFile())
+                    ? logFile : new File("target/javen-logs/.partial", logFile.getName());
+            this.tail = new String[Math.max(1, tailLines)];
+            this.listener = listener;
+            ReactorThreads.daemonThreads("javen-output").newThread(this::pump).start();
+        }
+
+        /**
+         * @param project the project of the invocation, null for an invocation outside of the projects
+         * @param message the message describing the invocation
+         * @return the log file of a new invocation, under the javen.logs.dir directory if set, else under the javen-logs
+         * directory of the target directory of the project (target/javen-logs outside of the projects)
+         */
+        static File logFile(MvnProject project, String message) {
+            String artifactId = project == null ? "" : project.artifactId;
+            String name = (message.startsWith(artifactId) ? message : artifactId + "-" + message).replaceAll("[^A-Za-z0-9._-]+", "_");
+            String directory = project == null ? "target/javen-logs" : project.targetDir + "/javen-logs";
+            return new File(System.getProperty("javen.logs.dir", directory),
+                    String.format("%04d-%s.log.gz", sequence.incrementAndGet(), name));
+        }
+
+        @Override
+        public void consumeLine(String line) {
+            String bounded = line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) + "..." : line;
+            try {
+                if (pumped.getCount() > 0) {
+                    queue.put(bounded);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * a failing log file is dropped, the tail and the listener still get every line
+         */
+        private void pump() {
+            Writer writer = openLog();
+            try {
+                for (String line = queue.take(); line != END; line = queue.take()) {
+                    synchronized (this) {
+                        tail[next] = line;
+                        next = (next + 1) % tail.length;
+                        lines++;
+                    }
+                    listener.accept(line);
+                    if (writer != null) {
+                        try {
+                            writer.write(line);
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            logError("unable to write the maven output to " + logFile + ", only its tail is kept", "pump", e);
+                            closeLog(writer);
+                            writer = null;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (writer != null && closeLog(writer) && partialFile != logFile) {
+                    moveLog();
+                }
+                pumped.countDown();
+                queue.clear();
+            }
+        }
+
+        private Writer openLog() {
+            if (partialFile == null) {
+                return null;
+            }
+            try {
+                Files.createDirectories(partialFile.getAbsoluteFile().getParentFile().toPath());
+                return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(partialFile), 64 * 1024), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                logError("unable to write the maven output to " + logFile + ", only its tail is kept", "pump", e);
+                return null;
+            }
+        }
+
+        private boolean closeLog(Writer writer) {
+            try {
+                writer.close();
+                return true;
+            } catch (IOException e) {
+                logError("unable to close the maven output log " + logFile, "pump", e);
+                return false;
+            }
+        }
+
+        private void moveLog() {
+            try {
+                Files.createDirectories(logFile.getAbsoluteFile().getParentFile().toPath());
+                Files.move(partialFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                logError("unable to move the maven output log to " + logFile + ", it is left in " + partialFile, "pump", e);
+            }
+        }
+
+        /**
+         * waits for every captured line to be pumped, and closes the log file
+         */
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (pumped.getCount() > 0) {
+                    queue.put(END);
+                }
+                pumped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * @return the last captured lines, oldest first
+         */
+        synchronized List<String> tail() {
+            List<String> last = new ArrayList<>(tail.length);
+            int count = (int) Math.min(lines, tail.length);
+            for (int i = 0; i < count; i++) {
+                last.add(tail[(next - count + i + tail.length) % tail.length]);
+            }
+            return last;
+        }
+
+        synchronized long lines() {
+            return lines;
+        }
+
+        File getLogFile() {
+            return logFile;
+        }
+    }
+
+
+    /**
+     * represents a maven project
+     */
+    public static class MvnProject {
+        String dependenciesDir = "";
+        String groupId = "";
+        String artifactId = "";
+        String version = "";
+        List<String> dependencies = new ArrayList<>();
+        volatile boolean failed = false;
+        volatile boolean offline = false;
+        boolean batching = false;
+        final List<QueuedExecution> queuedExecutions = new ArrayList<>();
+        String pomFileName = "pom.xml";
+        String targetDir = "";
+        String javadocDir = "";
+        String projectDir = "";
+        public Map<String, String> properties;
+
+        public MvnProject(String projectDir) {
+            this.projectDir = projectDir;
+            this.targetDir = projectDir + "/target";
+            this.javadocDir = this.targetDir + "/site/apidocs";
+            this.dependenciesDir = this.targetDir + "/dependency";
+            this.version = mvn.projectversion(getPomFilePath());
+            this.artifactId = mvn.projectArtifactId(getPomFilePath());
+            this.groupId = mvn.projectGroupId(getPomFilePath());
+            this.dependencies = mvn.projectDependencies(getPomFilePath());
+            this.properties = mvn.mvnProjectProperties(getPomFilePath());
+        }
+
+        /**
+         * @return the "groupId:artifactId" coordinates of this project
+         */
+        public String coordinates() {
+            return this.groupId + ":" + this.artifactId;
+        }
+
+        /**
+         * @return true if one of the executors of this project failed
+         */
+        public boolean hasFailed() {
+            return failed;
+        }
+
+        /**
+         * starts the batching mode: executions of this project are queued until {@link #flush()} is called,
+         * consecutive executions with the same options are then merged into a single maven invocation
+         * @return this project
+         */
+        public synchronized MvnProject batch() {
+            this.batching = true;
+            return this;
+        }
+
+        /**
+         * runs the queued executions and leaves the batching mode.
+         * Consecutive executions sharing the same options, user properties and engine are merged and their goals
+         * are run in one maven invocation. If a merged invocation fails, the executions run before the failing mojo succeeded,
+         * the one running it failed, and the next ones are replayed one by one so that each onSuccess/onFail operation reports
+         * its own status. When the output tells no mojo (quiet invocations), every execution is replayed.
+         * @return true if all the queued executions succeeded
+         */
+        public boolean flush() {
+            List<QueuedExecution> executions;
+            synchronized (this) {
+                executions = new ArrayList<>(queuedExecutions);
+                queuedExecutions.clear();
+                batching = false;
+            }
+            boolean success = true;
+            RuntimeException failure = null;
+            try {
+                int start = 0;
+                while (start < executions.size()) {
+                    int end = start + 1;
+                    while (end < executions.size() && executions.get(start).executor.canBeMergedWith(executions.get(end).executor)) {
+                        end++;
+                    }
+                    success &= runMerged(executions.subList(start, end));
+                    start = end;
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            } finally {
+                // an onSuccess/onFail operation which throws stops the flush, the futures of the executions left are not kept pending
+                for (QueuedExecution execution : executions) {
+                    if (!execution.future.isDone()) {
+                        execution.future.completeExceptionally(failure != null ? failure : new IllegalStateException("flush interrupted"));
+                    }
+                }
+            }
+            return success;
+        }
+
+        private boolean runMerged(List<QueuedExecution> executions) {
+            MvnExecutor first = executions.get(0).executor;
+            if (executions.size() == 1) {
+                executions.get(0).future.complete(first.run(executions.get(0).message));
+                return !first.hasFailed;
+            }
+            String message = this.artifactId + " : " + executions.stream().map(e -> e.message).collect(Collectors.joining(" + "));
+            String mergedGoals = executions.stream().map(e -> e.executor.goals).collect(Collectors.joining(" "));
+            MvnInvocation invocation = first.startInvocation();
+            for (QueuedExecution execution : executions) {
+                execution.executor.running = invocation;
+                if (execution.executor.cancelled) {
+                    invocation.cancel();
+                }
+            }
+            Result merged;
+            try {
+                merged = mvn.invoke(first.engine, invocation, this, message, first.options(), first.arguments.toString(), mergedGoals);
+            } finally {
+                for (QueuedExecution execution : executions) {
+                    execution.executor.running = null;
+                }
+            }
+            if (merged.succeeded() || invocation.interrupted()) {
+                // a timed out or cancelled invocation is not replayed, each execution reports its status
+                for (QueuedExecution execution : executions) {
+                    report(execution, merged.withMessage(this.artifactId + " : " + execution.message));
+                }
+                return merged.succeeded();
+            }
+            int failing = failingExecution(executions, merged.mojos);
+            if (failing < 0) {
+                logInfo("merged invocation failed, replaying its executions one by one : " + message);
+            } else {
+                logInfo("merged invocation failed in " + executions.get(failing).message + ", replaying the next executions one by one : " + message);
+                for (QueuedExecution execution : executions.subList(0, failing)) {
+                    report(execution, new Result(Result.Type.MAVEN, this.artifactId, this.artifactId + " : " + execution.message,
+                            Status.OK, merged.start, merged.end, 0, ""));
+                }
+                report(executions.get(failing), merged.withMessage(this.artifactId + " : " + executions.get(failing).message));
+            }
+            boolean success = failing < 0;
+            for (QueuedExecution execution : executions.subList(failing + 1, executions.size())) {
+                execution.future.complete(execution.executor.run(execution.message));
+                success &= !execution.executor.hasFailed;
+            }
+            return success;
+        }
+
+        private void report(QueuedExecution execution, Result result) {
+            results.add(result);
+            execution.executor.hasFailed = !result.succeeded();
+            if (result.succeeded()) {
+                execution.executor.successOperation.process();
+            } else {
+                this.failed = true;
+                execution.executor.failOperation.process();
+            }
+            execution.future.complete(result);
+        }
+
+        /**
+         * follows the mojos run by a merged invocation through its executions: a mojo run from the command line
+         * (default-cli execution) belongs to the execution naming its goal, a mojo bound to the lifecycle to the current
+         * or next execution naming a phase
+         * @return the index of the execution running the last mojo, -1 if no mojo ran
+         */
+        static int failingExecution(List<QueuedExecution> executions, List<MojoTiming> mojos) {
+            int current = -1;
+            for (MojoTiming mojo : mojos) {
+                String[] coordinates = mojo.mojo.split(":");
+                String plugin = coordinates[0];
+                String goal = coordinates[coordinates.length - 1];
+                boolean fromCommandLine = mojo.execution.startsWith("default-cli");
+                for (int i = Math.max(0, current); i < executions.size(); i++) {
+                    String[] tokens = executions.get(i).executor.goals.trim().split("\\s+");
+                    boolean matches = Arrays.stream(tokens).anyMatch(token -> fromCommandLine
+                            ? invokesMojo(token, plugin, goal)
+                            : !token.isEmpty() && token.indexOf(':') < 0);
+                    if (matches) {
+                        current = i;
+                        break;
+                    }
+                }
+            }
+            return current;
+        }
+
+        /**
+         * @param token a goal of the command line: prefix:goal or groupId:artifactId[:version]:goal
+         * @param plugin the artifactId or the prefix of the plugin of a mojo, as printed by maven
+         */
+        static boolean invokesMojo(String token, String plugin, String goal) {
+            String[] parts = token.split(":");
+            if (parts.length < 2 || !parts[parts.length - 1].equals(goal)) {
+                return false;
+            }
+            String tokenPlugin = parts.length == 2 ? parts[0] : parts[1];
+            return plugin.equals(tokenPlugin)
+                    || plugin.equals("maven-" + tokenPlugin + "-plugin") || plugin.equals(tokenPlugin + "-maven-plugin")
+                    || tokenPlugin.equals("maven-" + plugin + "-plugin") || tokenPlugin.equals(plugin + "-maven-plugin");
+        }
+
+        /**
+         * leaves the batching mode without running the queued executions, which fail
+         * @param reason why the executions are not run
+         */
+        void discard(String reason) {
+            List<QueuedExecution> executions;
+            synchronized (this) {
+                executions = new ArrayList<>(queuedExecutions);
+                queuedExecutions.clear();
+                batching = false;
+            }
+            for (QueuedExecution execution : executions) {
+                execution.executor.hasFailed = true;
+                execution.future.complete(Result.failure(Result.Type.MAVEN, this.artifactId, this.artifactId + " : " + execution.message, reason));
+            }
+        }
+
+        synchronized boolean enqueue(MvnExecutor executor, String executionMessage, CompletableFuture<Result> future) {
+            if (!batching) {
+                return false;
+            }
+            queuedExecutions.add(new QueuedExecution(executor, executionMessage, future));
+            return true;
+        }
+
+        public MvnExecutor executor() {
+            MvnExecutor executor = new MvnExecutor();
+            executor.projectPomFile(getPomFilePath());
+            executor.project = this;
+            return executor;
+        }
+
+        public String getPomFilePath() {
+            return this.projectDir + "/" + this.pomFileName;
+        }
+
+        public String getJavadocFilePath() {
+            return this.projectDir + " / " + this.targetDir + "/" + this.javadocDir;
+        }
+
+        public MvnExecutor prepareCompoDoc() {
+            return executor()
+                    .userProperty("frontend.npx.arguments", "\"@compodoc/compodoc -p tsconfig.json  --language 'fr-FR' --theme 'postmark'\"")
+                    .goals(FRONT_END_PLUGIN + ":npx");
+        }
+
+        public MvnExecutor prepareCleanInstall() {
+            return executor().goals("clean install");
+        }
+        
+        public MvnExecutor prepareCleanDeploy() {
+        	return executor().goals("clean deploy");
+        }
+
+        public MvnExecutor prepareCopyDependencies() {
+            return executor().goals("org.apache.maven.plugins:maven-dependency-plugin:3.1.2:copy-dependencies");
+        }
+
+        public MvnExecutor prepareJavadoc() {
+            return executor().goals("generate-sources javadoc:javadoc");
+        }
+
+        public MvnExecutor prepareJavadocJar() {
+            return executor().goals("generate-sources javadoc:jar");
+        }
+
+        public MvnExecutor prepareSourcesJar() {
+            return executor().goals("generate-sources source:jar");
+        }
+
+        public String target() {
+            return this.projectDir + " / " + this.targetDir;
+        }
+    }
+
+    static class QueuedExecution {
+        final MvnExecutor executor;
+        final String message;
+        final CompletableFuture<Result> future;
+
+        QueuedExecution(MvnExecutor executor, String message, CompletableFuture<Result> future) {
+            this.executor = executor;
+            this.message = message;
+            this.future = future;
+        }
+    }
+
+    /**
+     * functionnal interface to represent an operation without result
+     * @param <T>
+     */
+    public interface Operation<T> {
+        void process();
+    }
+
+    /**
+     * a backend able to run a maven invocation
+     */
+    public interface MvnEngine {
+        InvocationResult execute(InvocationRequest request) throws MavenInvocationException;
+    }
+
+    /**
+     * runs maven in the current JVM, through the MavenCli of a local maven installation loaded in an isolated class loader.
+     * The class loader is kept between invocations so maven core classes stay loaded and compiled by the JIT.
+     * Invocations are serialized as maven relies on system properties, the standard streams and the context class loader.
+     */
+    static class EmbeddedMvnEngine implements MvnEngine {
+        private final File mavenHome;
+        private ClassLoader mavenClassLoader;
+        private Class<?> mavenCliClass;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        EmbeddedMvnEngine(File mavenHome) {
+            this.mavenHome = mavenHome;
+        }
+
+        static File findMavenHome() {
+            for (String home : listOf(System.getProperty("maven.home"), System.getenv("MAVEN_HOME"), System.getenv("M2_HOME"))) {
+                if (home != null && new File(home, "lib").isDirectory()) {
+                    return new File(home);
+                }
+            }
+            File mvnExecutable = findExecutable("M2_HOME", "mvn");
+            if (mvnExecutable != null) {
+                try {
+                    File home = mvnExecutable.getCanonicalFile().getParentFile().getParentFile();
+                    if (new File(home, "lib").isDirectory()) {
+                        return home;
+                    }
+                } catch (IOException e) {
+                    logError("unable to resolve maven home", "findMavenHome", e);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public InvocationResult execute(InvocationRequest request) throws MavenInvocationException {
+            lock.lock();
+            try {
+                MavenCommandLineBuilder builder = new MavenCommandLineBuilder();
+                builder.setMavenHome(mavenHome);
+                String[] arguments;
+                try {
+                    arguments = builder.build(request).getArguments();
+                } catch (CommandLineConfigurationException e) {
+                    throw new MavenInvocationException("unable to build maven arguments", e);
+                }
+                String workingDirectory = request.getBaseDirectory(new File(System.getProperty("user.dir"))).getAbsolutePath();
+
+                Properties systemProperties = System.getProperties();
+                MavenProperties mavenProperties = new MavenProperties(systemProperties);
+                PrintStream systemOut = System.out;
+                PrintStream systemErr = System.err;
+                Thread thread = Thread.currentThread();
+                ClassLoader contextClassLoader = thread.getContextClassLoader();
+                PrintStream out = outputStream(request.getOutputHandler(null), System.out);
+                PrintStream err = outputStream(request.getErrorHandler(null), System.err);
+                try {
+                    Class<?> cliClass = mavenCli();
+                    mavenProperties.mavenClassLoader = mavenClassLoader;
+                    thread.setContextClassLoader(mavenClassLoader);
+                    System.setProperties(mavenProperties);
+                    System.setProperty("maven.home", mavenHome.getAbsolutePath());
+                    System.setProperty("maven.conf", new File(mavenHome, "conf").getAbsolutePath());
+                    if (System.getProperty("maven.multiModuleProjectDirectory") == null) {
+                        System.setProperty("maven.multiModuleProjectDirectory", workingDirectory);
+                    }
+                    Object cli = cliClass.getConstructor().newInstance();
+                    int exitCode = (Integer) cliClass.getMethod("doMain", String[].class, String.class, PrintStream.class, PrintStream.class)
+                            .invoke(cli, arguments, workingDirectory, out, err);
+                    return new EmbeddedInvocationResult(exitCode);
+                } catch (ReflectiveOperationException | IOException e) {
+                    throw new MavenInvocationException("unable to run embedded maven from " + mavenHome, e);
+                } finally {
+                    // closing the line streams hands over a last line not ended by a new line
+                    closeOutput(out, systemOut);
+                    closeOutput(err, systemErr);
+                    thread.setContextClassLoader(contextClassLoader);
+                    mavenProperties.restore();
+                    System.setProperties(systemProperties);
+                    System.setOut(systemOut);
+                    System.setErr(systemErr);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Class<?> mavenCli() throws IOException, ClassNotFoundException {
+            if (mavenCliClass == null) {
+                List<URL> urls = new ArrayList<>();
+                // same class path as bin/m2.conf: the logging configuration, then the boot and lib jars
+                urls.add(new File(mavenHome, "conf/logging/").toURI().toURL());
+                for (File directory : new File[]{new File(mavenHome, "boot"), new File(mavenHome, "lib")}) {
+                    File[] jars = directory.listFiles((dir, name) -> name.endsWith(".jar"));
+                    if (jars != null) {
+                        for (File jar : jars) {
+                            urls.add(jar.toURI().toURL());
+                        }
+                    }
+                }
+                // parent is the platform/extension class loader, so that Reactor's own classpath does not leak into maven
+                mavenClassLoader = new URLClassLoader(urls.toArray(new URL[0]), ClassLoader.getSystemClassLoader().getParent());
+                mavenCliClass = mavenClassLoader.loadClass("org.apache.maven.cli.MavenCli");
+            }
+            return mavenCliClass;
+        }
+
+        private static void closeOutput(PrintStream stream, PrintStream systemStream) {
+            if (stream == systemStream) {
+                stream.flush();
+            } else {
+                stream.close();
+            }
+        }
+
+        private static PrintStream outputStream(InvocationOutputHandler handler, PrintStream defaultStream) {
+            if (handler == null) {
+                return defaultStream;
+            }
+            return new PrintStream(new LineOutputStream(handler), true);
+        }
+    }
+
+    /**
+     * forks a maven process for every invocation, as the maven invoker does, but keeps hold of the process:
+     * its output is pumped line by line to the invocation handlers, and the process is killed with all its children
+     * (surefire forks, node processes...) when the invocation times out or is cancelled.
+     */
+    static class ProcessMvnEngine implements MvnEngine {
+        /**
+         * how long a killed process tree may take to exit before being killed forcibly
+         */
+        static final long KILL_GRACE_MILLIS = 3000;
+
+        private final File mavenExecutable;
+
+        /**
+         * @param mavenExecutable the mvn (or mvnd) executable, null to locate it as the maven invoker does
+         */
+        ProcessMvnEngine(File mavenExecutable) {
+            this.mavenExecutable = mavenExecutable;
+        }
+
+        @Override
+        public InvocationResult execute(InvocationRequest request) throws MavenInvocationException {
+            MavenCommandLineBuilder builder = new MavenCommandLineBuilder();
+            if (mavenExecutable != null) {
+                builder.setMavenExecutable(mavenExecutable);
+                builder.setMavenHome(mavenExecutable.getAbsoluteFile().getParentFile().getParentFile());
+            } else if (System.getProperty("maven.home") == null) {
+                // the invoker only looks at maven.home, outside of maven MAVEN_HOME or the PATH tell where maven is
+                builder.setMavenHome(EmbeddedMvnEngine.findMavenHome());
+            }
+            Commandline commandline;
+            try {
+                commandline = builder.build(request);
+            } catch (CommandLineConfigurationException | IllegalStateException e) {
+                throw new MavenInvocationException("unable to build the maven command line", e);
+            }
+            MvnInvocation invocation = request instanceof ControlledInvocationRequest
+                    ? ((ControlledInvocationRequest) request).invocation
+                    : new MvnInvocation(TimeUnit.SECONDS.toMillis(Math.max(0, request.getTimeoutInSeconds())));
+            Process process;
+            try {
+                process = commandline.execute();
+            } catch (CommandLineException e) {
+                return new ProcessInvocationResult(-1, e);
+            }
+            Thread out = pump(process.getInputStream(), request.getOutputHandler(null));
+            Thread err = pump(process.getErrorStream(), request.getErrorHandler(null));
+            try {
+                process.getOutputStream().close();
+                invocation.attach(process);
+                boolean exited = true;
+                if (invocation.timeoutMillis > 0) {
+                    exited = process.waitFor(invocation.timeoutMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    process.waitFor();
+                }
+                if (!exited) {
+                    invocation.timedOut = true;
+                    destroyProcessTree(process);
+                }
+                int exitCode = process.waitFor();
+                out.join(KILL_GRACE_MILLIS);
+                err.join(KILL_GRACE_MILLIS);
+                return new ProcessInvocationResult(invocation.interrupted() ? -1 : exitCode, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                invocation.cancel();
+                return new ProcessInvocationResult(-1, new CommandLineException("interrupted while waiting for maven", e));
+            } catch (IOException e) {
+                destroyProcessTree(process);
+                return new ProcessInvocationResult(-1, new CommandLineException("unable to run maven", e));
+            } finally {
+                invocation.detach();
+            }
+        }
+
+        private static Thread pump(InputStream stream, InvocationOutputHandler handler) {
+            Thread thread = ReactorThreads.daemonThreads("javen-pump").newThread(() -> {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        if (handler == null) {
+                            System.out.println(line);
+                        } else {
+                            handler.consumeLine(line);
+                        }
+                    }
+                } catch (IOException e) {
+                    LOGGER.throwing("Reactor", "pump", e);
+                }
+            });
+            thread.start();
+            return thread;
+        }
+
+        /**
+         * asks a process and all its descendants to stop, and kills the ones still alive after a grace delay.
+         * The descendants are listed through ProcessHandle, or on Java 8 through the parent pids of /proc (on other systems
+         * than Linux, Java 8 only kills the process itself).
+         */
+        static void destroyProcessTree(Process process) {
+            List<Object> descendants = new ArrayList<>();
+            Method destroy = null;
+            Method destroyForcibly = null;
+            Method isAlive = null;
+            try {
+                Class<?> handleClass = Class.forName("java.lang.ProcessHandle");
+                destroy = handleClass.getMethod("destroy");
+                destroyForcibly = handleClass.getMethod("destroyForcibly");
+                isAlive = handleClass.getMethod("isAlive");
+                Object handle = Process.class.getMethod("toHandle").invoke(process);
+                // listed before the process is stopped, its children would then be re-parented and out of reach
+                try (Stream<?> stream = (Stream<?>) handleClass.getMethod("descendants").invoke(handle)) {
+                    stream.forEach(descendants::add);
+                }
+            } catch (ReflectiveOperationException e) {
+                destroyProcTree(process);
+                return;
+            }
+            try {
+                process.destroy();
+                for (Object descendant : descendants) {
+                    destroy.invoke(descendant);
+                }
+                long deadline = System.currentTimeMillis() + KILL_GRACE_MILLIS;
+                process.waitFor(KILL_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+                for (Object descendant : descendants) {
+                    while ((Boolean) isAlive.invoke(descendant) && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                    }
+                    if ((Boolean) isAlive.invoke(descendant)) {
+                        destroyForcibly.invoke(descendant);
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                LOGGER.throwing("Reactor", "destroyProcessTree", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+
+        /**
+         * the Java 8 version of {@link #destroyProcessTree(Process)}: the descendants are listed from /proc and signalled with kill
+         */
+        private static void destroyProcTree(Process process) {
+            List<String> descendants = procDescendants(pid(process));
+            try {
+                process.destroy();
+                signal("-TERM", descendants);
+                long deadline = System.currentTimeMillis() + KILL_GRACE_MILLIS;
+                process.waitFor(KILL_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+                for (String descendant : descendants) {
+                    while (procAlive(descendant) && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(20);
+                    }
+                }
+                signal("-KILL", descendants.stream().filter(ProcessMvnEngine::procAlive).collect(Collectors.toList()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+
+        /**
+         * @return the pid of a process on Java 8, from the private field of the unix implementation, -1 if unknown
+         */
+        private static long pid(Process process) {
+            try {
+                java.lang.reflect.Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return pid.getLong(process);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.fine("the pid of the maven process is unknown on this JVM, its children cannot be listed");
+                return -1;
+            }
+        }
+
+        /**
+         * @return the pids of the descendants of a process, found through the parent pid of every /proc/[pid]/stat
+         */
+        static List<String> procDescendants(long pid) {
+            File[] processes = new File("/proc").listFiles(file -> file.getName().chars().allMatch(Character::isDigit));
+            if (pid <= 0 || processes == null) {
+                return Collections.emptyList();
+            }
+            Map<String, List<String>> children = new HashMap<>();
+            for (File process : processes) {
+                String stat = procStat(process.getName());
+                if (stat != null) {
+                    // pid (comm) state ppid ..., the command may contain spaces and parentheses
+                    String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                    children.computeIfAbsent(fields[1], parent -> new ArrayList<>()).add(process.getName());
+                }
+            }
+            List<String> descendants = new ArrayList<>();
+            Deque<String> parents = new ArrayDeque<>(Collections.singleton(Long.toString(pid)));
+            while (!parents.isEmpty()) {
+                for (String child : children.getOrDefault(parents.poll(), Collections.emptyList())) {
+                    descendants.add(child);
+                    parents.add(child);
+                }
+            }
+            return descendants;
+        }
+
+        private static String procStat(String pid) {
+            try {
+                return new String(Files.readAllBytes(Paths.get("/proc", pid, "stat")), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                // the process ended meanwhile
+                return null;
+            }
+        }
+
+        private static boolean procAlive(String pid) {
+            String stat = procStat(pid);
+            // a killed child waiting to be reaped is a zombie
+            return stat != null && !stat.substring(stat.lastIndexOf(')') + 2).startsWith("Z");
+        }
+
+        private static void signal(String signal, List<String> pids) throws InterruptedException {
+            if (pids.isEmpty()) {
+                return;
+            }
+            List<String> command = new ArrayList<>(Arrays.asList("kill", signal));
+            command.addAll(pids);
+            try {
+                new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(new File("/dev/null")).start().waitFor();
+            } catch (IOException e) {
+                LOGGER.throwing("Reactor", "signal", e);
+            }
+        }
+    }
+
+    static class ProcessInvocationResult implements InvocationResult {
+        private final int exitCode;
+        private final CommandLineException executionException;
+
+        ProcessInvocationResult(int exitCode, CommandLineException executionException) {
+            this.exitCode = exitCode;
+            this.executionException = executionException;
+        }
+
+        @Override
+        public CommandLineException getExecutionException() {
+            return executionException;
+        }
+
+        @Override
+        public int getExitCode() {
+            return exitCode;
+        }
+    }
+
+    /**
+     * a running maven invocation, which can time out or be cancelled.
+     * Only the engines forking a process ({@link mvn#FORKED}, {@link mvn#daemon()}) can stop an invocation,
+     * the embedded engine runs it to its end.
+     */
+    static class MvnInvocation {
+        final long timeoutMillis;
+        volatile boolean timedOut;
+        volatile boolean cancelled;
+        private Process process;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        MvnInvocation(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        void attach(Process process) {
+            lock.lock();
+            try {
+                this.process = process;
+                if (cancelled) {
+                    ProcessMvnEngine.destroyProcessTree(process);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void detach() {
+            lock.lock();
+            try {
+                this.process = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * kills the process of the invocation and its children, or prevents it from starting
+         */
+        void cancel() {
+            Process running;
+            lock.lock();
+            try {
+                cancelled = true;
+                running = process;
+            } finally {
+                lock.unlock();
+            }
+            if (running != null) {
+                ProcessMvnEngine.destroyProcessTree(running);
+            }
+        }
+
+        boolean interrupted() {
+            return timedOut || cancelled;
+        }
+    }
+
+    /**
+     * shares the cores and the memory of the machine between the maven invocations running at the same time.
+     * Each invocation gets a share of the cores ({@code -T} times surefire {@code forkCount}, JIT compiler threads) and of the memory
+     * (maven heap and test fork heaps), computed from the invocations running and the projects planned by the schedulers when it starts:
+     * a lone invocation gets the whole machine, and the shares grow again as invocations finish.
+     * An invocation waits for memory to be released rather than starting over the memory budget.
+     */
+    public static class ResourceController {
+        final int cores;
+        final long memoryMb;
+        long minHeapMb = 256;
+        long maxHeapMb = 4096;
+        long forkHeapMb = 512;
+        private int running;
+        private int planned;
+        private int allocatedCores;
+        private long allocatedMemoryMb;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+
+        /**
+         * @param cores the number of cores shared by the invocations
+         * @param memoryMb the memory shared by the maven heaps and the heaps of their test forks, in MB
+         */
+        public ResourceController(int cores, long memoryMb) {
+            this.cores = Math.max(1, cores);
+            this.memoryMb = Math.max(1, memoryMb);
+        }
+
+        /**
+         * @return a controller sharing the available processors and three quarters of the physical memory
+         */
+        // getTotalMemorySize() replaces it from Java 14, Java 8 only has this one
+        @SuppressWarnings("deprecation")
+        public static ResourceController ofMachine() {
+            long physicalMemory = Runtime.getRuntime().maxMemory() * 4;
+            java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean) {
+                physicalMemory = ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize();
+            }
+            return new ResourceController(Runtime.getRuntime().availableProcessors(), physicalMemory / 4 * 3 / (1024 * 1024));
+        }
+
+        /**
+         * @param minHeapMb the smallest heap given to an invocation
+         * @param maxHeapMb the largest heap given to an invocation
+         */
+        public ResourceController heap(long minHeapMb, long maxHeapMb) {
+            this.minHeapMb = Math.max(16, minHeapMb);
+            this.maxHeapMb = Math.max(this.minHeapMb, maxHeapMb);
+            return this;
+        }
+
+        /**
+         * @param forkHeapMb the heap of each surefire fork of an invocation
+         */
+        public ResourceController forkHeap(long forkHeapMb) {
+            this.forkHeapMb = Math.max(16, forkHeapMb);
+            return this;
+        }
+
+        /**
+         * declares projects about to be built concurrently, so that the first invocations leave cores to the next ones
+         */
+        void plan(int projects) {
+            lock.lock();
+            try {
+                planned = Math.max(0, planned + projects);
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * reserves the share of an invocation, waiting for memory if the budget is exhausted
+         * @return the allocation, to be released when the invocation ends
+         */
+        Allocation acquire() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    int sharing = Math.max(running + 1, planned);
+                    int threads = Math.max(1, Math.min(cores / sharing, cores - allocatedCores));
+                    Allocation allocation = new Allocation(threads, 0, forkHeapMb);
+                    // the test forks take their heaps out of the share first, maven gets the rest
+                    long forksMb = allocation.forks() * forkHeapMb;
+                    long heap = Math.max(minHeapMb, Math.min(maxHeapMb, memoryMb / sharing - forksMb));
+                    allocation = new Allocation(threads, heap, forkHeapMb);
+                    if (running == 0 || allocatedMemoryMb + allocation.memoryMb() <= memoryMb) {
+                        running++;
+                        allocatedCores += threads;
+                        allocatedMemoryMb += allocation.memoryMb();
+                        return allocation;
+                    }
+                    released.await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Allocation allocation) {
+            lock.lock();
+            try {
+                running--;
+                allocatedCores -= allocation.threads;
+                allocatedMemoryMb -= allocation.memoryMb();
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int running() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * the share of the machine given to one maven invocation
+     */
+    static class Allocation {
+        final int threads;
+        final long heapMb;
+        final long forkHeapMb;
+
+        Allocation(int threads, long heapMb, long forkHeapMb) {
+            this.threads = threads;
+            this.heapMb = heapMb;
+            this.forkHeapMb = forkHeapMb;
+        }
+
+        /**
+         * @return the surefire forks of a module
+         */
+        int forkCount() {
+            return Math.max(1, threads / 2);
+        }
+
+        /**
+         * @return the modules built at once (-T), each one running up to {@link #forkCount()} forks
+         */
+        int builders() {
+            return Math.max(1, threads / forkCount());
+        }
+
+        /**
+         * @return the most surefire forks running at once, never more than the threads of the invocation
+         */
+        int forks() {
+            return builders() * forkCount();
+        }
+
+        /**
+         * @return the memory of the invocation, the maven heap and the heaps of its test forks
+         */
+        long memoryMb() {
+            return heapMb + forks() * forkHeapMb;
+        }
+
+        /**
+         * @param arguments the arguments of the invocation, options already given there are kept
+         * @return the arguments to add
+         */
+        List<String> arguments(List<String> arguments) {
+            String commandLine = " " + String.join(" ", arguments) + " ";
+            List<String> added = new ArrayList<>();
+            if (!commandLine.contains(" -T ") && !commandLine.contains(" --threads ")) {
+                added.add("-T " + builders());
+            }
+            if (!commandLine.contains("-DforkCount=")) {
+                added.add("-DforkCount=" + forkCount());
+            }
+            if (!commandLine.contains("-DargLine=")) {
+                // a fork without -Xmx takes a quarter of the physical memory, whatever the share of its invocation
+                added.add("-DargLine=-Xmx" + forkHeapMb + "m");
+            }
+            return added;
+        }
+
+        /**
+         * @param mavenOpts the MAVEN_OPTS of the environment, may be null
+         * @return the MAVEN_OPTS of the invocation, a heap set in the environment is kept
+         */
+        String mavenOpts(String mavenOpts) {
+            StringBuilder opts = new StringBuilder(mavenOpts == null ? "" : mavenOpts.trim());
+            if (opts.indexOf("-Xmx") < 0) {
+                opts.append(" -Xmx").append(heapMb).append("m");
+            }
+            if (opts.indexOf("CICompilerCount") < 0) {
+                // tiered compilation needs at least 2 compiler threads
+                opts.append(" -XX:CICompilerCount=").append(Math.max(2, Math.min(threads, 4)));
+            }
+            return opts.toString().trim();
+        }
+
+        @Override
+        public String toString() {
+            return threads + " threads, " + builders() + " builders of " + forkCount() + " forks of " + forkHeapMb + " MB, " + heapMb + " MB heap";
+        }
+    }
+
+    /**
+     * an invocation request carrying the control of its invocation to the engine
+     */
+    static class ControlledInvocationRequest extends DefaultInvocationRequest {
+        final MvnInvocation invocation;
+
+        ControlledInvocationRequest(MvnInvocation invocation) {
+            this.invocation = invocation;
+            if (invocation.timeoutMillis > 0) {
+                setTimeoutInSeconds((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(invocation.timeoutMillis)));
+            }
+        }
+    }
+
+    /**
+     * an output stream splitting what is written into lines, forwarded to an invocation output handler
+     */
+    static class LineOutputStream extends OutputStream {
+        private final InvocationOutputHandler handler;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        LineOutputStream(InvocationOutputHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            lock.lock();
+            try {
+                if (b == '\n') {
+                    flushLine();
+                } else if (b != '\r') {
+                    line.write(b);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+            try {
+                if (line.size() > 0) {
+                    flushLine();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void flushLine() throws IOException {
+            handler.consumeLine(new String(line.toByteArray(), StandardCharsets.UTF_8));
+            line.reset();
+        }
+    }
+
+    /**
+     * the system properties seen during an embedded invocation: the properties set by maven threads (recognized by their
+     * context class loader) are dropped once the invocation ends, the properties set meanwhile by the other threads are kept
+     */
+    static class MavenProperties extends Properties {
+        private final Properties systemProperties;
+        private final Set<Object> otherKeys = ConcurrentHashMap.newKeySet();
+        volatile ClassLoader mavenClassLoader;
+
+        MavenProperties(Properties systemProperties) {
+            this.systemProperties = systemProperties;
+            for (String key : systemProperties.stringPropertyNames()) {
+                super.put(key, systemProperties.getProperty(key));
+            }
+        }
+
+        @Override
+        public synchronized Object put(Object key, Object value) {
+            recordKey(key);
+            return super.put(key, value);
+        }
+
+        @Override
+        public synchronized Object remove(Object key) {
+            recordKey(key);
+            return super.remove(key);
+        }
+
+        private void recordKey(Object key) {
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            if (mavenClassLoader == null || contextClassLoader != mavenClassLoader) {
+                otherKeys.add(key);
+            }
+        }
+
+        /**
+         * copies to the original system properties what the other threads changed during the invocation
+         */
+        void restore() {
+            for (Object key : otherKeys) {
+                Object value = get(key);
+                if (value == null) {
+                    systemProperties.remove(key);
+                } else {
+                    systemProperties.put(key, value);
+                }
+            }
+        }
+    }
+
+    static class EmbeddedInvocationResult implements InvocationResult {
+        private final int exitCode;
+
+        EmbeddedInvocationResult(int exitCode) {
+            this.exitCode = exitCode;
+        }
+
+        @Override
+        public CommandLineException getExecutionException() {
+            return null;
+        }
+
+        @Override
+        public int getExitCode() {
+            return exitCode;
+        }
+    }
+
+    /**
+     * represents an execution for a maven project.
+     */
+    public static class MvnExecutor {
+        MvnProject project;
+        StringBuilder firstArguments = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+        String goals = "";
+        boolean upToDateCheck = false;
+        ArtifactCache cache;
+        boolean hasFailed = false;
+        long timeoutMillis = 0;
+        volatile MvnInvocation running;
+        volatile boolean cancelled = false;
+        MvnEngine engine = mvn.FORKED;
+        Operation<MvnExecutor> failOperation = () -> logInfo("command status : error executing goal");
+        Operation<MvnExecutor> successOperation = () -> logInfo("command status : success");
+
+        public MvnExecutor forceUpdate() {
+            firstArguments.append(" " + MVN_CLI_UPDATE + " ");
+            return this;
+        }
+
+        public MvnExecutor skipTests() {
+            firstArguments.append(" " + MVN_SKIP_TESTS + " ");
+            return this;
+        }
+
+        public MvnExecutor quiet() {
+            firstArguments.append(" " + MVN_CLI_QUIET + " ");
+            return this;
+        }
+
+        public MvnExecutor goals(String goals) {
+            this.goals = goals;
+            return this;
+        }
+
+        public MvnExecutor onFail(Operation<MvnExecutor> op) {
+            this.failOperation = op;
+            return this;
+        }
+
+        public MvnExecutor onSuccess(Operation<MvnExecutor> op) {
+            this.successOperation = op;
+            return this;
+        }
+
+
+        public MvnExecutor userProperty(String key, String value) {
+            arguments.append(" " + Reactor.mvnCliParam(key, value));
+            return this;
+        }
+
+        public MvnExecutor projectPomFile(String pomFilePath) {
+            firstArguments.append(" -f " + pomFilePath + " ");
+            return this;
+        }
+
+        /**
+         * selects the engine running this execution, see {@link mvn#FORKED}, {@link mvn#embedded()} and {@link mvn#daemon()}
+         */
+        public MvnExecutor engine(MvnEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * stops the maven invocation if it runs longer than the timeout: the forked process and all its children are killed,
+         * and the execution is reported as TIMED-OUT. The embedded engine cannot stop an invocation and ignores the timeout.
+         */
+        public MvnExecutor timeout(long timeout, TimeUnit unit) {
+            this.timeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * cancels the execution: the running maven process and all its children are killed,
+         * an execution not started yet fails without invoking maven
+         * @return this executor
+         */
+        public MvnExecutor cancel() {
+            cancelled = true;
+            MvnInvocation invocation = running;
+            if (invocation != null) {
+                invocation.cancel();
+            }
+            return this;
+        }
+
+        /**
+         * restores the artifacts of a previous execution with the same inputs from a local cache instead of invoking maven,
+         * installing them in the local repository if the goals install the project. After a successful invocation,
+         * the artifacts at the top of the target directory are stored in the cache.
+         * @param cache the cache, see {@link mvn#cache(String)}
+         */
+        public MvnExecutor cache(ArtifactCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * skips the maven invocation when the pom, the src/ tree, the goals and the user properties did not change
+         * since the last successful execution. The fingerprint is stored under the project target directory.
+         */
+        public MvnExecutor upToDateCheck() {
+            this.upToDateCheck = true;
+            return this;
+        }
+
+        /**
+         * executes the goals, or queues them if the project is in batching mode (see {@link MvnProject#batch()})
+         * @param executionMessage message describing the execution
+         * @return this executor
+         */
+        public MvnExecutor execute(String executionMessage) {
+            if (!this.project.enqueue(this, executionMessage, new CompletableFuture<>())) {
+                run(executionMessage);
+            }
+            return this;
+        }
+
+        /**
+         * executes the goals on the {@link Reactor#asyncExecutor()}
+         * @param executionMessage message describing the execution
+         * @return the future result of the execution
+         * @see #executeAsync(String, Executor)
+         */
+        public CompletableFuture<Result> executeAsync(String executionMessage) {
+            return executeAsync(executionMessage, asyncExecutor());
+        }
+
+        /**
+         * executes the goals on the given executor. If the project is in batching mode, the execution is queued instead
+         * and the future completes when the project is flushed.
+         * The onSuccess and onFail operations are called before the future completes.
+         * @param executionMessage message describing the execution
+         * @param executor the executor running the maven invocation
+         * @return the future result of the execution
+         */
+        public CompletableFuture<Result> executeAsync(String executionMessage, Executor executor) {
+            CompletableFuture<Result> future = new CompletableFuture<>();
+            if (this.project.enqueue(this, executionMessage, future)) {
+                return future;
+            }
+            CompletableFuture<Result> result = CompletableFuture.supplyAsync(() -> run(executionMessage), executor);
+            result.whenComplete((r, e) -> {
+                if (result.isCancelled()) {
+                    cancel();
+                }
+            });
+            return result;
+        }
+
+        boolean canBeMergedWith(MvnExecutor other) {
+            return !upToDateCheck && !other.upToDateCheck
+                    && cache == null && other.cache == null
+                    && engine == other.engine
+                    && timeoutMillis == other.timeoutMillis
+                    && firstArguments.toString().equals(other.firstArguments.toString())
+                    && arguments.toString().equals(other.arguments.toString());
+        }
+
+        Result run(String executionMessage) {
+            hasFailed = false;
+            String message = this.project.artifactId + " : " + executionMessage;
+            String fingerprint = upToDateCheck || cache != null ? fingerprint() : null;
+            File fingerprintFile = fingerprintFile();
+            if (upToDateCheck && fingerprint != null && fingerprintFile.isFile() && fingerprint.equals(readFingerprint(fingerprintFile))) {
+                logInfo(message + " : UP-TO-DATE, skipping maven invocation");
+                Result result = new Result(Result.Type.MAVEN, project.artifactId, message, Status.UP_TO_DATE,
+                        System.currentTimeMillis(), System.currentTimeMillis(), "");
+                results.add(result);
+                successOperation.process();
+                return result;
+            }
+            long start = System.currentTimeMillis();
+            if (cache != null && fingerprint != null && cache.restore(fingerprint, project, goals.contains("install"))) {
+                logInfo(message + " : FROM-CACHE, artifacts restored from " + cache.directory);
+                Result result = new Result(Result.Type.MAVEN, project.artifactId, message, Status.FROM_CACHE, start, System.currentTimeMillis(), "");
+                results.add(result);
+                if (upToDateCheck) {
+                    writeFingerprint(fingerprintFile, fingerprint);
+                }
+                successOperation.process();
+                return result;
+            }
+            Result result;
+            try {
+                result = mvn.runFor(engine, startInvocation(), project, message, options(), arguments.toString(), goals);
+            } finally {
+                running = null;
+            }
+            if (result.succeeded()) {
+                if (fingerprint != null && upToDateCheck) {
+                    writeFingerprint(fingerprintFile, fingerprint);
+                }
+                if (fingerprint != null && cache != null) {
+                    cache.store(fingerprint, project);
+                }
+                successOperation.process();
+            } else {
+                hasFailed = true;
+                this.project.failed = true;
+                failOperation.process();
+            }
+            return result;
+        }
+
+        /**
+         * @return the maven options of the invocation, offline (-o) once the dependencies of the project were prefetched
+         */
+        String options() {
+            return project.offline ? firstArguments + " -o " : firstArguments.toString();
+        }
+
+        /**
+         * @return a new invocation controlled by this executor, already cancelled if the executor was
+         */
+        MvnInvocation startInvocation() {
+            MvnInvocation invocation = new MvnInvocation(timeoutMillis);
+            running = invocation;
+            if (cancelled) {
+                invocation.cancel();
+            }
+            return invocation;
+        }
+
+        /**
+         * fingerprints the inputs of the execution, the pom location being left out so that the same project
+         * checked out in another workspace gets the same fingerprint. The parent poms and the artifacts of the dependencies
+         * of the same group (the sibling modules, resolved from the local repository) are inputs too.
+         */
+        String fingerprint() {
+            try {
+                String options = firstArguments.toString().replaceAll("-f\\s+\\S+", "");
+                List<String> inputs = new ArrayList<>(Arrays.asList(options, arguments.toString(), goals));
+                EffectivePom pom = EffectivePom.resolve(project.getPomFilePath());
+                for (EffectivePom parent = pom.parent; parent != null; parent = parent.parent) {
+                    inputs.add("parent " + parent.groupId + ":" + parent.artifactId + "=" + hashFile(parent.model.pomPath));
+                }
+                File repository = cache != null ? cache.localRepository : EffectivePom.localRepository();
+                for (PomDependency dependency : pom.dependencies) {
+                    if (dependency.groupId.equals(pom.groupId)) {
+                        File artifact = new File(repository, dependency.groupId.replace('.', '/') + "/" + dependency.artifactId + "/" + dependency.version
+                                + "/" + dependency.artifactId + "-" + dependency.version + (dependency.classifier.isEmpty() ? "" : "-" + dependency.classifier)
+                                + "." + dependency.type);
+                        inputs.add("dependency " + dependency + "=" + (artifact.isFile() ? hashFile(artifact.toPath()) : "unresolved"));
+                    }
+                }
+                return inputsFingerprint(project.projectDir, project.getPomFilePath(), inputs.toArray(new String[0]));
+            } catch (IOException | RuntimeException e) {
+                logError("unable to compute the fingerprint, executing anyway", "upToDateCheck", e);
+                return null;
+            }
+        }
+
+        File fingerprintFile() {
+            String key = hashString(firstArguments + "|" + arguments + "|" + goals).substring(0, 16);
+            return new File(project.targetDir, ".javen/" + key + ".fingerprint");
+        }
+
+        private static String readFingerprint(File fingerprintFile) {
+            try {
+                return new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8).trim();
+            } catch (IOException e) {
+                return "";
+            }
+        }
+
+        private static void writeFingerprint(File fingerprintFile, String fingerprint) {
+            try {
+                fingerprintFile.getParentFile().mkdirs();
+                Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                logError("unable to store the fingerprint", "upToDateCheck", e);
+            }
+        }
+
+
+    }
+
+    /**
+     * builds a group of maven projects on a bounded pool of threads.
+     * The inter-project graph is read from the poms (parent and direct dependencies), a project is started
+     * as soon as all the projects it depends on have succeeded, and skipped if one of them failed.
+     */
+    public static class MvnScheduler {
+        final List<MvnProject> projects;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Consumer<MvnProject> projectOperation = project -> project.prepareCleanInstall().execute("building project");
+
+        MvnScheduler(List<MvnProject> projects) {
+            this.projects = new ArrayList<>(projects);
+        }
+
+        /**
+         * @param threads the maximum number of projects built at the same time
+         */
+        public MvnScheduler threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+
+        /**
+         * @param op the executors to run for each project, in the same style as for a single project
+         */
+        public MvnScheduler perProject(Consumer<MvnProject> op) {
+            this.projectOperation = op;
+            return this;
+        }
+
+        /**
+         * runs the per project operation on every project, respecting the dependency order
+         * @param executionMessage message logged for the whole group
+         * @return true if all the projects have been built successfully
+         */
+        public boolean execute(String executionMessage) {
+            logInfo(executionMessage + " : scheduling " + projects.size() + " projects on " + threads + " threads");
+            Map<MvnProject, List<MvnProject>> downstreams = new HashMap<>();
+            Map<MvnProject, Integer> remainingUpstreams = new HashMap<>();
+            buildGraph(downstreams, remainingUpstreams);
+
+            Set<MvnProject> finished = new HashSet<>();
+            Set<MvnProject> skipped = new HashSet<>();
+            ExecutorService pool = ReactorThreads.newBoundedExecutor("javen-scheduler", threads);
+            CompletionService<MvnProject> completion = new ExecutorCompletionService<>(pool);
+            int running = 0;
+            try {
+                for (MvnProject project : projects) {
+                    if (remainingUpstreams.get(project) == 0) {
+                        submit(completion, project);
+                        running++;
+                    }
+                }
+                while (running > 0) {
+                    MvnProject done = completion.take().get();
+                    running--;
+                    finished.add(done);
+                    if (done.failed) {
+                        skipDownstreams(done, downstreams, skipped);
+                        continue;
+                    }
+                    for (MvnProject downstream : downstreams.get(done)) {
+                        int remaining = remainingUpstreams.merge(downstream, -1, Integer::sum);
+                        if (remaining == 0 && !skipped.contains(downstream)) {
+                            submit(completion, downstream);
+                            running++;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logError("interrupted while waiting for projects", "execute", e);
+            } catch (ExecutionException e) {
+                logError("unexpected error while building projects", "execute", e);
+            } finally {
+                pool.shutdownNow();
+            }
+
+            boolean success = true;
+            for (MvnProject project : projects) {
+                if (!finished.contains(project) && !skipped.contains(project)) {
+                    results.add(Result.skipped(project.artifactId, project.artifactId + " : not built", "dependency cycle or interruption"));
+                    project.failed = true;
+                }
+                success &= finished.contains(project) && !project.failed;
+            }
+            return success;
+        }
+
+        private void buildGraph(Map<MvnProject, List<MvnProject>> downstreams, Map<MvnProject, Integer> remainingUpstreams) {
+            Map<String, MvnProject> byCoordinates = new HashMap<>();
+            for (MvnProject project : projects) {
+                byCoordinates.put(project.coordinates(), project);
+                downstreams.put(project, new ArrayList<>());
+            }
+            for (MvnProject project : projects) {
+                Set<MvnProject> upstreams = new HashSet<>();
+                for (String dependency : project.dependencies) {
+                    MvnProject upstream = byCoordinates.get(dependency);
+                    if (upstream != null && upstream != project) {
+                        upstreams.add(upstream);
+                    }
+                }
+                for (MvnProject upstream : upstreams) {
+                    downstreams.get(upstream).add(project);
+                }
+                remainingUpstreams.put(project, upstreams.size());
+            }
+        }
+
+        private void submit(CompletionService<MvnProject> completion, MvnProject project) {
+            ResourceController controller = resourceController;
+            if (controller != null) {
+                controller.plan(1);
+            }
+            completion.submit(() -> {
+                project.failed = false;
+                try {
+                    projectOperation.accept(project);
+                    project.flush();
+                } catch (RuntimeException e) {
+                    logError("error while building " + project.artifactId, "execute", e);
+                    results.add(Result.failure(Result.Type.BUILD, project.artifactId, project.artifactId + " : build error", e.toString()));
+                    project.failed = true;
+                } finally {
+                    // executions queued before the operation failed are not run
+                    project.discard("build error");
+                    if (controller != null) {
+                        controller.plan(-1);
+                    }
+                }
+                return project;
+            });
+        }
+
+        private void skipDownstreams(MvnProject failedProject, Map<MvnProject, List<MvnProject>> downstreams, Set<MvnProject> skipped) {
+            for (MvnProject downstream : downstreams.get(failedProject)) {
+                if (skipped.add(downstream)) {
+                    results.add(Result.skipped(downstream.artifactId, downstream.artifactId + " : skipped", failedProject.artifactId + " failed"));
+                    downstream.failed = true;
+                    skipDownstreams(downstream, downstreams, skipped);
+                }
+            }
+        }
+    }
+
+    /**
+     * watches the directories of a group of maven projects and rebuilds the projects whose files changed.
+     * Events are debounced: a rebuild starts once no file changed for the debounce delay, and all the projects
+     * changed meanwhile are rebuilt together by a {@link MvnScheduler}. The target directory of each project is ignored,
+     * as well as hidden directories, so that the builds do not trigger themselves.
+     */
+    public static class MvnWatcher {
+        final List<MvnProject> projects;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long debounceMillis = 200;
+        boolean downstreams = false;
+        Consumer<MvnProject> projectOperation = project -> project.prepareCleanInstall().execute("building project");
+        private final Map<WatchKey, MvnProject> watchKeys = new HashMap<>();
+        private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+        private final AtomicInteger rebuilds = new AtomicInteger();
+        private volatile WatchService watcher;
+        private volatile boolean stopped;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition progressed = lock.newCondition();
+        private boolean watching;
+        private int batches;
+
+        MvnWatcher(List<MvnProject> projects) {
+            this.projects = new ArrayList<>(projects);
+        }
+
+        /**
+         * @param threads the maximum number of projects rebuilt at the same time
+         */
+        public MvnWatcher threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+
+        /**
+         * @param debounceMillis how long the files must stay unchanged before a rebuild starts
+         */
+        public MvnWatcher debounce(long debounceMillis) {
+            this.debounceMillis = Math.max(0, debounceMillis);
+            return this;
+        }
+
+        /**
+         * also rebuilds the registered projects depending on a changed project
+         */
+        public MvnWatcher withDownstreams() {
+            this.downstreams = true;
+            return this;
+        }
+
+        /**
+         * @param op the executors to run again for each changed project
+         */
+        public MvnWatcher perProject(Consumer<MvnProject> op) {
+            this.projectOperation = op;
+            return this;
+        }
+
+        /**
+         * @return the number of rebuilds run since the watch started
+         */
+        public int rebuilds() {
+            return rebuilds.get();
+        }
+
+        /**
+         * waits for the directories of the projects to be registered, the changes made before being missed
+         * @return true if the projects are watched
+         */
+        public boolean awaitWatching(long timeout, TimeUnit unit) throws InterruptedException {
+            return await(() -> watching, timeout, unit);
+        }
+
+        /**
+         * waits for the watch to have handled a number of batches of file events since the watcher was created, a batch being debounced
+         * then rebuilt, or dropped when all its events are ignored
+         * @return true if the batches were handled
+         */
+        public boolean awaitBatches(int count, long timeout, TimeUnit unit) throws InterruptedException {
+            return await(() -> batches >= count, timeout, unit);
+        }
+
+        private boolean await(BooleanSupplier condition, long timeout, TimeUnit unit) throws InterruptedException {
+            long remaining = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                while (!condition.getAsBoolean()) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = progressed.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void progress(Runnable change) {
+            lock.lock();
+            try {
+                change.run();
+                progressed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * stops the watch, the current rebuild being completed
+         */
+        public void stop() {
+            stopped = true;
+            WatchService service = watcher;
+            if (service != null) {
+                try {
+                    service.close();
+                } catch (IOException e) {
+                    LOGGER.throwing("Reactor", "stop", e);
+                }
+            }
+        }
+
+        /**
+         * watches the projects until {@link #stop()} is called, rebuilding the changed ones
+         * @param executionMessage message logged for each rebuild
+         * @return true if the last rebuild succeeded
+         */
+        public boolean watch(String executionMessage) {
+            boolean success = true;
+            try (WatchService service = FileSystems.getDefault().newWatchService()) {
+                watcher = service;
+                for (MvnProject project : projects) {
+                    register(project, new File(project.projectDir).toPath());
+                }
+                logInfo(executionMessage + " : watching " + projects.size() + " projects");
+                progress(() -> watching = true);
+                while (!stopped) {
+                    Set<MvnProject> changed = new LinkedHashSet<>();
+                    collect(service.take(), changed);
+                    // waits for the files to stay unchanged, at most ten debounce delays so that a busy tree still gets rebuilt
+                    long deadline = System.currentTimeMillis() + debounceMillis * 10;
+                    WatchKey key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    while (key != null) {
+                        collect(key, changed);
+                        key = System.currentTimeMillis() < deadline ? service.poll(debounceMillis, TimeUnit.MILLISECONDS) : null;
+                    }
+                    if (!changed.isEmpty() && !stopped) {
+                        success = rebuild(executionMessage, changed);
+                    }
+                    progress(() -> batches++);
+                }
+            } catch (ClosedWatchServiceException e) {
+                // stopped
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logError("unable to watch the projects", "watch", e);
+                return false;
+            } finally {
+                watcher = null;
+                progress(() -> watching = false);
+            }
+            return success;
+        }
+
+        private boolean rebuild(String executionMessage, Set<MvnProject> changed) {
+            if (downstreams) {
+                addDownstreams(changed);
+            }
+            rebuilds.incrementAndGet();
+            String names = changed.stream().map(project -> project.artifactId).collect(Collectors.joining(", "));
+            long start = System.currentTimeMillis();
+            boolean success = new MvnScheduler(new ArrayList<>(changed)).threads(threads).perProject(projectOperation).execute(executionMessage + " : " + names);
+            logInfo(executionMessage + " : rebuilt " + names + " in " + (System.currentTimeMillis() - start) + " ms" + (success ? "" : ", with failures"));
+            return success;
+        }
+
+        private void addDownstreams(Set<MvnProject> changed) {
+            boolean added = true;
+            while (added) {
+                added = false;
+                Set<String> coordinates = changed.stream().map(MvnProject::coordinates).collect(Collectors.toSet());
+                for (MvnProject project : projects) {
+                    if (!changed.contains(project) && project.dependencies.stream().anyMatch(coordinates::contains)) {
+                        added |= changed.add(project);
+                    }
+                }
+            }
+        }
+
+        private void collect(WatchKey key, Set<MvnProject> changed) {
+            MvnProject project = watchKeys.get(key);
+            Path directory = watchedDirectories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (project == null) {
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    changed.add(project);
+                    continue;
+                }
+                Path child = directory.resolve((Path) event.context());
+                if (ignored(project, child)) {
+                    continue;
+                }
+                changed.add(project);
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    register(project, child);
+                }
+            }
+            if (!key.reset()) {
+                watchKeys.remove(key);
+                watchedDirectories.remove(key);
+            }
+        }
+
+        private boolean ignored(MvnProject project, Path path) {
+            Path absolute = path.toAbsolutePath().normalize();
+            if (absolute.startsWith(new File(project.targetDir).toPath().toAbsolutePath().normalize())) {
+                return true;
+            }
+            Path name = absolute.getFileName();
+            return name != null && name.toString().startsWith(".");
+        }
+
+        /**
+         * registers a directory and its sub directories, except the ignored ones and the directories of the other projects
+         */
+        private void register(MvnProject project, Path directory) {
+            Set<Path> projectDirs = projects.stream().filter(other -> other != project)
+                    .map(other -> new File(other.projectDir).toPath().toAbsolutePath().normalize()).collect(Collectors.toSet());
+            try {
+                Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                        if (!dir.equals(directory) && (ignored(project, dir) || projectDirs.contains(dir.toAbsolutePath().normalize()))) {
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+                        WatchKey key = dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                        watchKeys.put(key, project);
+                        watchedDirectories.put(key, dir);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                logError("unable to watch " + directory, "register", e);
+            }
+        }
+    }
+
+    /**
+     * resolves the dependencies and plugins of a group of projects into the local repository, one project per thread,
+     * so that their executors can then run offline (-o) without checking the remote repositories again.
+     * A project is only resolved online when one of its direct dependencies is missing from the local repository,
+     * or when its pom changed since its last successful prefetch.
+     */
+    public static class DependencyPrefetch {
+        static final String GO_OFFLINE = "org.apache.maven.plugins:maven-dependency-plugin:3.6.1:go-offline";
+
+        final List<MvnProject> projects;
+        int threads = Runtime.getRuntime().availableProcessors();
+        MvnEngine engine = mvn.FORKED;
+        String goal = GO_OFFLINE;
+
+        DependencyPrefetch(List<MvnProject> projects) {
+            this.projects = new ArrayList<>(projects);
+        }
+
+        /**
+         * @param threads the maximum number of projects resolved at the same time
+         */
+        public DependencyPrefetch threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+
+        /**
+         * selects the engine running the resolutions, see {@link mvn#FORKED}, {@link mvn#embedded()} and {@link mvn#daemon()}
+         */
+        public DependencyPrefetch engine(MvnEngine engine) {
+            this.engine = engine;
+            return this;
+        }
+
+        /**
+         * @param goal the goal resolving a project, {@code maven-dependency-plugin:3.6.1:go-offline} by default
+         */
+        public DependencyPrefetch goal(String goal) {
+            this.goal = goal;
+            return this;
+        }
+
+        /**
+         * resolves the projects missing artifacts, and switches the executors of the resolved projects to offline mode
+         * @param executionMessage message logged for the whole group
+         * @return true if every project can run offline
+         */
+        public boolean execute(String executionMessage) {
+            logInfo(executionMessage + " : prefetching the dependencies of " + projects.size() + " projects on " + threads + " threads");
+            Set<String> siblings = projects.stream().map(project -> project.artifactId).collect(Collectors.toCollection(TreeSet::new));
+            ExecutorService pool = ReactorThreads.newBoundedExecutor("javen-prefetch", threads);
+            List<Future<Boolean>> prefetched = new ArrayList<>();
+            for (MvnProject project : projects) {
+                prefetched.add(pool.submit(() -> prefetch(project, siblings)));
+            }
+            boolean success = true;
+            try {
+                for (Future<Boolean> future : prefetched) {
+                    success &= future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logError("interrupted while prefetching", "prefetch", e);
+                success = false;
+            } catch (ExecutionException e) {
+                logError("unexpected error while prefetching", "prefetch", e);
+                success = false;
+            } finally {
+                pool.shutdownNow();
+            }
+            return success;
+        }
+
+        private boolean prefetch(MvnProject project, Set<String> siblings) {
+            File marker = markerFile(project);
+            String pomHash = hashFile(new File(project.getPomFilePath()).toPath());
+            List<String> missing = missingArtifacts(project, siblings);
+            if (missing.isEmpty() && marker.isFile() && pomHash.equals(readMarker(marker))) {
+                logInfo(project.artifactId + " : all artifacts available locally, running offline");
+                project.offline = true;
+                return true;
+            }
+            if (!missing.isEmpty()) {
+                logInfo(project.artifactId + " : resolving online, missing " + String.join(", ", missing));
+            }
+            String excludes = siblings.stream().filter(sibling -> !sibling.equals(project.artifactId)).collect(Collectors.joining(","));
+            Result result = mvn.runFor(engine, project, project.artifactId + " : prefetching dependencies",
+                    project.executor().firstArguments.toString(), excludes.isEmpty() ? "" : mvnCliParam("excludeArtifactIds", excludes), goal);
+            project.offline = result.succeeded();
+            if (result.succeeded()) {
+                try {
+                    Files.createDirectories(marker.getParentFile().toPath());
+                    Files.write(marker.toPath(), pomHash.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    logError("unable to record the prefetch of " + project.artifactId, "prefetch", e);
+                }
+            }
+            return result.succeeded();
+        }
+
+        /**
+         * @return the direct dependencies of the project which are neither in the local repository nor built by the group
+         */
+        static List<String> missingArtifacts(MvnProject project, Set<String> siblings) {
+            List<String> missing = new ArrayList<>();
+            List<PomDependency> dependencies;
+            try {
+                dependencies = EffectivePom.resolve(project.getPomFilePath()).dependencies;
+            } catch (IOException e) {
+                missing.add(project.getPomFilePath());
+                return missing;
+            }
+            File repository = EffectivePom.localRepository();
+            for (PomDependency dependency : dependencies) {
+                if (siblings.contains(dependency.artifactId) || "system".equals(dependency.scope)) {
+                    continue;
+                }
+                if (dependency.version.isEmpty() || dependency.version.contains("${")) {
+                    // managed or unresolved version, only maven knows which artifact it is
+                    missing.add(dependency.toString());
+                    continue;
+                }
+                String directory = dependency.groupId.replace('.', '/') + "/" + dependency.artifactId + "/" + dependency.version + "/";
+                String baseName = dependency.artifactId + "-" + dependency.version;
+                String classifier = dependency.classifier.isEmpty() ? ("test-jar".equals(dependency.type) ? "-tests" : "") : "-" + dependency.classifier;
+                String extension = "test-jar".equals(dependency.type) ? "jar" : dependency.type;
+                if (!new File(repository, directory + baseName + ".pom").isFile()
+                        || !new File(repository, directory + baseName + classifier + "." + extension).isFile()) {
+                    missing.add(dependency.toString());
+                }
+            }
+            return missing;
+        }
+
+        /**
+         * @return the file recording the last successful prefetch of a project, kept in the local repository it filled
+         * (a clean of the project does not delete it), and keyed by the location of the pom
+         */
+        static File markerFile(MvnProject project) {
+            String pomPath = new File(project.getPomFilePath()).getAbsoluteFile().toPath().normalize().toString();
+            return new File(EffectivePom.localRepository(), ".javen/prefetched/" + hashString(pomPath).substring(0, 16));
+        }
+
+        private static String readMarker(File marker) {
+            try {
+                return new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8).trim();
+            } catch (IOException e) {
+                return "";
+            }
+        }
+    }
+
+    /**
+     * a local, content-addressed cache of built artifacts, shareable between the workspaces and CI agents of a host.
+     * An entry maps the fingerprint of a project execution (pom and parent poms, src/ tree, artifacts of the dependencies
+     * of the same group, goals and options) to the artifacts found at the top of its target directory; the artifacts themselves
+     * are stored once per content under objects/.
+     * Entries are evicted least recently used first to keep the cache under its size budget.
+     * Files are written through atomic renames, and evictions hold a file lock, so several JVMs can use the same cache.
+     * A restore copies and checks the objects of an entry aside first, so an entry evicted meanwhile leaves the target directory untouched,
+     * and puts the artifacts it replaced back when it fails midway.
+     */
+    public static class ArtifactCache {
+        static final Set<String> CACHED_EXTENSIONS = new HashSet<>(Arrays.asList("jar", "war", "ear"));
+        // a file lock is held by the whole JVM, its threads are serialized first, without pinning a carrier thread
+        private static final ReentrantLock jvmLock = new ReentrantLock();
+
+        final File directory;
+        long maxSize = 10L * 1024 * 1024 * 1024;
+        File localRepository = new File(System.getProperty("user.home"), ".m2/repository");
+
+        ArtifactCache(File directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * @param maxSize the size budget of the cache, in bytes
+         */
+        public ArtifactCache maxSize(long maxSize) {
+            this.maxSize = Math.max(0, maxSize);
+            return this;
+        }
+
+        /**
+         * @param localRepository the maven local repository in which restored artifacts are installed
+         */
+        public ArtifactCache localRepository(String localRepository) {
+            this.localRepository = new File(localRepository);
+            return this;
+        }
+
+        File entryFile(String key) {
+            return new File(directory, "entries/" + key + ".properties");
+        }
+
+        File objectFile(String hash) {
+            return new File(directory, "objects/" + hash.substring(0, 2) + "/" + hash);
+        }
+
+        /**
+         * restores the artifacts of an entry in the target directory of a project
+         * @return true if the entry was found and all its artifacts restored
+         */
+        boolean restore(String key, MvnProject project, boolean install) {
+            File entryFile = entryFile(key);
+            if (!entryFile.isFile()) {
+                return false;
+            }
+            Properties entry = new Properties();
+            Path restoring = null;
+            try (InputStream is = new FileInputStream(entryFile)) {
+                entry.load(is);
+                File targetDir = new File(project.targetDir);
+                Files.createDirectories(new File(targetDir, ".javen").toPath());
+                // every object is copied aside and checked before any artifact is replaced, an object evicted or corrupted
+                // meanwhile then fails the restore as a whole
+                restoring = Files.createTempDirectory(new File(targetDir, ".javen").toPath(), "restore");
+                Path staged = Files.createDirectory(restoring.resolve("staged"));
+                Path replaced = Files.createDirectory(restoring.resolve("replaced"));
+                List<String> names = new ArrayList<>();
+                for (String name : entry.stringPropertyNames()) {
+                    if (name.startsWith("file.")) {
+                        String hash = entry.getProperty(name);
+                        Path object = staged.resolve(name.substring(5));
+                        Files.copy(objectFile(hash).toPath(), object);
+                        if (!hash.equals(hashFile(object))) {
+                            throw new IOException("corrupted object " + hash);
+                        }
+                        names.add(name.substring(5));
+                    }
+                }
+                List<String> moved = new ArrayList<>();
+                try {
+                    for (String name : names) {
+                        Path restored = new File(targetDir, name).toPath();
+                        if (Files.exists(restored, LinkOption.NOFOLLOW_LINKS)) {
+                            Files.move(restored, replaced.resolve(name));
+                        }
+                        moved.add(name);
+                        Files.move(staged.resolve(name), restored);
+                        if (install) {
+                            install(project, restored);
+                        }
+                    }
+                    if (install) {
+                        install(project, new File(project.getPomFilePath()).toPath());
+                    }
+                } catch (IOException e) {
+                    rollBack(targetDir, replaced, moved);
+                    throw e;
+                }
+                // the modification time of an entry is its last use, for the LRU eviction
+                entryFile.setLastModified(System.currentTimeMillis());
+                return true;
+            } catch (IOException e) {
+                // evicted meanwhile by another JVM, or corrupted: the project is built
+                LOGGER.throwing("Reactor", "restore", e);
+                return false;
+            } finally {
+                if (restoring != null) {
+                    deleteDirectory(restoring.toFile());
+                }
+            }
+        }
+
+        /**
+         * puts back the artifacts replaced by a failed restore, and removes the ones it added
+         */
+        private static void rollBack(File targetDir, Path replaced, List<String> moved) {
+            for (String name : moved) {
+                Path restored = new File(targetDir, name).toPath();
+                try {
+                    Files.deleteIfExists(restored);
+                    if (Files.exists(replaced.resolve(name), LinkOption.NOFOLLOW_LINKS)) {
+                        Files.move(replaced.resolve(name), restored);
+                    }
+                } catch (IOException e) {
+                    logError("unable to put back " + restored + " after a failed restore", "restore", e);
+                }
+            }
+        }
+
+        /**
+         * installs an artifact of the project in the local repository, the way install:install does
+         */
+        void install(MvnProject project, Path artifact) throws IOException {
+            String fileName = artifact.getFileName().toString();
+            String baseName = project.artifactId + "-" + project.version;
+            String installedName;
+            if (fileName.equals(project.pomFileName)) {
+                installedName = baseName + ".pom";
+            } else if (fileName.startsWith(baseName)) {
+                installedName = fileName;
+            } else {
+                return;
+            }
+            Path installed = new File(localRepository, project.groupId.replace('.', '/') + "/" + project.artifactId + "/" + project.version + "/" + installedName).toPath();
+            Files.createDirectories(installed.getParent());
+            Files.copy(artifact, installed, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * stores the artifacts at the top of the target directory of a project under a key, then evicts the entries over budget
+         */
+        void store(String key, MvnProject project) {
+            File[] artifacts = new File(project.targetDir).listFiles(file -> file.isFile()
+                    && CACHED_EXTENSIONS.contains(file.getName().substring(file.getName().lastIndexOf('.') + 1)));
+            if (artifacts == null) {
+                return;
+            }
+            Properties entry = new Properties();
+            try {
+                withLock(() -> {
+                    long size = 0;
+                    for (File artifact : artifacts) {
+                        String hash = hashFile(artifact.toPath());
+                        File object = objectFile(hash);
+                        if (!object.isFile()) {
+                            writeAtomically(object, temporary -> Files.copy(artifact.toPath(), temporary, StandardCopyOption.REPLACE_EXISTING));
+                        }
+                        entry.setProperty("file." + artifact.getName(), hash);
+                        size += artifact.length();
+                    }
+                    entry.setProperty("project", project.coordinates() + ":" + project.version);
+                    entry.setProperty("size", Long.toString(size));
+                    writeAtomically(entryFile(key), temporary -> {
+                        try (OutputStream os = Files.newOutputStream(temporary)) {
+                            entry.store(os, null);
+                        }
+                    });
+                    evict();
+                });
+            } catch (IOException | UncheckedIOException e) {
+                logError("unable to store the artifacts of " + project.artifactId + " in the cache", "store", e);
+            }
+        }
+
+        /**
+         * runs an action holding the lock of the cache directory, shared by all the JVMs of the host
+         */
+        void withLock(IOAction action) throws IOException {
+            Files.createDirectories(directory.toPath());
+            jvmLock.lock();
+            try (FileChannel lockChannel = FileChannel.open(new File(directory, ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = lockChannel.lock()) {
+                action.run();
+            } finally {
+                jvmLock.unlock();
+            }
+        }
+
+        /**
+         * deletes the least recently used entries until the cache fits its budget, then the objects no entry refers to.
+         * To be called holding the lock.
+         */
+        void evict() throws IOException {
+            File[] entries = new File(directory, "entries").listFiles((dir, name) -> name.endsWith(".properties"));
+            if (entries == null) {
+                return;
+            }
+            Arrays.sort(entries, Comparator.comparingLong(File::lastModified).reversed());
+            Set<String> referenced = new HashSet<>();
+            long size = 0;
+            for (File entryFile : entries) {
+                Properties entry = new Properties();
+                try (InputStream is = new FileInputStream(entryFile)) {
+                    entry.load(is);
+                } catch (IOException e) {
+                    Files.deleteIfExists(entryFile.toPath());
+                    continue;
+                }
+                Set<String> hashes = new HashSet<>();
+                long entrySize = 0;
+                for (String name : entry.stringPropertyNames()) {
+                    if (name.startsWith("file.")) {
+                        String hash = entry.getProperty(name);
+                        hashes.add(hash);
+                        if (!referenced.contains(hash)) {
+                            entrySize += objectFile(hash).length();
+                        }
+                    }
+                }
+                if (size + entrySize > maxSize) {
+                    Files.deleteIfExists(entryFile.toPath());
+                } else {
+                    size += entrySize;
+                    referenced.addAll(hashes);
+                }
+            }
+            File[] buckets = new File(directory, "objects").listFiles(File::isDirectory);
+            for (File bucket : buckets == null ? new File[0] : buckets) {
+                File[] objects = bucket.listFiles((dir, name) -> !referenced.contains(name) && !name.endsWith(".tmp"));
+                for (File object : objects == null ? new File[0] : objects) {
+                    Files.deleteIfExists(object.toPath());
+                }
+            }
+        }
+
+        /**
+         * @return the size of the objects in the cache, in bytes
+         */
+        public long size() {
+            File[] buckets = new File(directory, "objects").listFiles(File::isDirectory);
+            long size = 0;
+            for (File bucket : buckets == null ? new File[0] : buckets) {
+                File[] objects = bucket.listFiles();
+                for (File object : objects == null ? new File[0] : objects) {
+                    size += object.length();
+                }
+            }
+            return size;
+        }
+
+        interface IOAction {
+            void run() throws IOException;
+        }
+
+        interface FileWriter {
+            void write(Path temporary) throws IOException;
+        }
+
+        /**
+         * writes a file under a temporary name, then renames it, so that other JVMs never see a partial file
+         */
+        private static void writeAtomically(File file, FileWriter writer) throws IOException {
+            Files.createDirectories(file.getParentFile().toPath());
+            Path temporary = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+            try {
+                writer.write(temporary);
+                try {
+                    Files.move(temporary, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
     }
 
 }
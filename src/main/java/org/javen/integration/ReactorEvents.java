@@ -0,0 +1,159 @@
+package org.javen.integration;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events emitted by the Reactor operations.
+ * This class is only loaded when the running JVM provides JFR, Reactor goes through {@link Reactor.Trace.Recorder}.
+ */
+final class ReactorEvents implements Reactor.Trace.Recorder {
+
+    ReactorEvents() {
+    }
+
+    @Override
+    public Object begin(Reactor.Trace.Operation operation) {
+        ReactorEvent event;
+        switch (operation) {
+            case COPY:
+                event = new CopyEvent();
+                break;
+            case ZIP:
+                event = new ZipEvent();
+                break;
+            case UNZIP:
+                event = new UnzipEvent();
+                break;
+            case FIND:
+                event = new FindEvent();
+                break;
+            case DELETE:
+                event = new DeleteEvent();
+                break;
+            case MOVE:
+                event = new MoveEvent();
+                break;
+            case POM_READ:
+                event = new PomReadEvent();
+                break;
+            default:
+                event = new MavenInvocationEvent();
+                break;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commit(Object event, Reactor.Trace trace) {
+        ReactorEvent reactorEvent = (ReactorEvent) event;
+        reactorEvent.end();
+        if (reactorEvent.shouldCommit()) {
+            reactorEvent.fill(trace);
+            reactorEvent.commit();
+        }
+    }
+
+    @Category({"Javen", "Reactor"})
+    abstract static class ReactorEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Target")
+        String target;
+
+        @Label("Files")
+        long files;
+
+        @Label("Bytes")
+        @DataAmount(DataAmount.BYTES)
+        long bytes;
+
+        @Label("Success")
+        boolean success;
+
+        void fill(Reactor.Trace trace) {
+            path = trace.path;
+            target = trace.target;
+            files = trace.files;
+            bytes = trace.bytes;
+            success = trace.success;
+        }
+    }
+
+    @Name("org.javen.Copy")
+    @Label("Copy")
+    @Description("Copy of a file or of a directory tree")
+    static class CopyEvent extends ReactorEvent {
+    }
+
+    @Name("org.javen.Zip")
+    @Label("Zip")
+    @Description("Creation of a zip archive, bytes being the archive size")
+    static class ZipEvent extends ReactorEvent {
+    }
+
+    @Name("org.javen.Unzip")
+    @Label("Unzip")
+    @Description("Extraction of a zip archive, bytes being the extracted size")
+    static class UnzipEvent extends ReactorEvent {
+    }
+
+    @Name("org.javen.Find")
+    @Label("Find")
+    @Description("Search of files by name, files being the number of matches")
+    static class FindEvent extends ReactorEvent {
+    }
+
+    @Name("org.javen.Delete")
+    @Label("Delete")
+    @Description("Deletion of a file, of a directory tree or of the files matching a criteria")
+    static class DeleteEvent extends ReactorEvent {
+    }
+
+    @Name("org.javen.Move")
+    @Label("Move")
+    static class MoveEvent extends ReactorEvent {
+    }
+
+    @Name("org.javen.PomRead")
+    @Label("Pom Read")
+    @Description("Read of a pom file, from the cache or parsed")
+    static class PomReadEvent extends ReactorEvent {
+        @Label("Cached")
+        boolean cached;
+
+        @Override
+        void fill(Reactor.Trace trace) {
+            super.fill(trace);
+            cached = trace.cached;
+        }
+    }
+
+    @Name("org.javen.MavenInvocation")
+    @Label("Maven Invocation")
+    @Description("A maven invocation, path being the invocation message")
+    static class MavenInvocationEvent extends ReactorEvent {
+        @Label("Goals")
+        String goals;
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Exit Code")
+        int exitCode;
+
+        @Override
+        void fill(Reactor.Trace trace) {
+            super.fill(trace);
+            goals = trace.goals;
+            engine = trace.engine;
+            exitCode = trace.exitCode;
+        }
+    }
+}
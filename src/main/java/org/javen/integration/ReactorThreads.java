@@ -0,0 +1,118 @@
+package org.javen.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the threads running the blocking work of the Reactor (directory walks, file copies and deletes, maven invocations).
+ * This is the Java 8 version, running on platform threads: directory trees are walked with fork/join tasks.
+ * The Java 21 version of the multi-release jar (src/main/java21) runs the same work on virtual threads.
+ */
+final class ReactorThreads {
+    /**
+     * true when the blocking work runs on virtual threads
+     */
+    static final boolean VIRTUAL = false;
+
+    private static final AutoCloseableNoException NO_PERMIT = () -> {
+    };
+
+    private ReactorThreads() {
+    }
+
+    /**
+     * a resource released without checked exception, to be used in a try-with-resources statement
+     */
+    interface AutoCloseableNoException extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @return a factory of daemon threads
+     */
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @param threads the maximum number of tasks running at once
+     * @return an executor running at most {@code threads} blocking tasks at once
+     */
+    static ExecutorService newBoundedExecutor(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, daemonThreads(name));
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @param threads the number of threads, when the tasks run on platform threads
+     * @return an executor for independent blocking tasks
+     */
+    static ExecutorService newBlockingExecutor(String name, int threads) {
+        return newBoundedExecutor(name, threads);
+    }
+
+    /**
+     * runs a task which may fork sub tasks with {@link #invokeAll(List)}, and waits for its result
+     * @param task the root task
+     * @param parallelism the number of platform threads, 0 for the common pool
+     * @return the result of the task
+     */
+    static <T> T invoke(Callable<T> task, int parallelism) {
+        if (parallelism <= 0) {
+            return ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(task));
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(ForkJoinTask.adapt(task));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * runs sub tasks in parallel from a task started by {@link #invoke(Callable, int)}, and waits for them
+     * @param tasks the sub tasks
+     * @return their results, in the same order
+     */
+    static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (!ForkJoinTask.inForkJoinPool()) {
+            for (Callable<T> task : tasks) {
+                results.add(ForkJoinTask.adapt(task).invoke());
+            }
+            return results;
+        }
+        List<ForkJoinTask<T>> forks = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            forks.add(ForkJoinTask.adapt(task));
+        }
+        for (ForkJoinTask<T> fork : ForkJoinTask.invokeAll(forks)) {
+            results.add(fork.join());
+        }
+        return results;
+    }
+
+    /**
+     * bounds the number of file descriptors opened at once when there is no bound on the threads.
+     * Platform threads are already bounded by their pools, so there is nothing to acquire here.
+     * @return the permit, to be closed once the files are closed
+     */
+    static AutoCloseableNoException ioPermit() {
+        return NO_PERMIT;
+    }
+}
@@ -0,0 +1,124 @@
+package org.javen.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * the threads running the blocking work of the Reactor (directory walks, file copies and deletes, maven invocations).
+ * This is the Java 21 version of the multi-release jar: the work runs on virtual threads, a sub directory being
+ * walked on its own virtual thread, and the number of files opened at once is bounded by the
+ * javen.io.concurrency system property (256 by default) instead of by the size of a pool. The threads pumping the output
+ * of the maven invocations are virtual threads too. On Java 21 a virtual thread blocked while holding a monitor pins its
+ * carrier thread: the Reactor holds ReentrantLocks around blocking work (file I/O, waits, process control), the monitors
+ * left only guard short sections which never block.
+ */
+final class ReactorThreads {
+    /**
+     * true when the blocking work runs on virtual threads
+     */
+    static final boolean VIRTUAL = true;
+
+    private static final Semaphore IO_PERMITS = new Semaphore(Math.max(1, Integer.getInteger("javen.io.concurrency", 256)));
+
+    private ReactorThreads() {
+    }
+
+    /**
+     * a resource released without checked exception, to be used in a try-with-resources statement
+     */
+    interface AutoCloseableNoException extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @return a factory of virtual threads
+     */
+    static ThreadFactory daemonThreads(String name) {
+        return Thread.ofVirtual().name(name + "-", 1).factory();
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @param threads the maximum number of tasks running at once
+     * @return an executor running at most {@code threads} tasks at once, each on a virtual thread
+     */
+    static ExecutorService newBoundedExecutor(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, daemonThreads(name));
+    }
+
+    /**
+     * @param name the prefix of the thread names
+     * @param threads ignored, every task gets its own virtual thread
+     * @return an executor for independent blocking tasks
+     */
+    static ExecutorService newBlockingExecutor(String name, int threads) {
+        return Executors.newThreadPerTaskExecutor(daemonThreads(name));
+    }
+
+    /**
+     * runs a task which may fork sub tasks with {@link #invokeAll(List)}, and waits for its result
+     * @param task the root task
+     * @param parallelism ignored, the sub tasks run on virtual threads
+     * @return the result of the task
+     */
+    static <T> T invoke(Callable<T> task, int parallelism) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * runs sub tasks in parallel, each on a virtual thread, and waits for them
+     * @param tasks the sub tasks
+     * @return their results, in the same order
+     */
+    static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            results.add(invoke(tasks.get(0), 1));
+            return results;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for sub tasks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * bounds the number of file descriptors opened at once by the virtual threads
+     * @return the permit, to be closed once the files are closed
+     */
+    static AutoCloseableNoException ioPermit() {
+        IO_PERMITS.acquireUninterruptibly();
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                IO_PERMITS.release();
+            }
+        };
+    }
+}
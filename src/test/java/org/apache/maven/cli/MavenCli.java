@@ -0,0 +1,20 @@
+package org.apache.maven.cli;
+
+import java.io.PrintStream;
+
+/**
+ * a stand-in for the maven entry point, packaged in a fake maven installation by the embedded engine tests:
+ * it sets a system property as maven does, and another one from a thread which does not belong to maven
+ */
+public class MavenCli {
+
+    public int doMain(String[] args, String workingDirectory, PrintStream stdout, PrintStream stderr) throws InterruptedException {
+        System.setProperty("javen.test.maven", "set by maven");
+        Thread other = new Thread(() -> System.setProperty("javen.test.other", "set meanwhile"));
+        other.setContextClassLoader(ClassLoader.getSystemClassLoader());
+        other.start();
+        other.join();
+        stdout.print("[INFO] " + String.join(" ", args) + "\r\n[INFO] BUILD SUCCESS");
+        return 0;
+    }
+}
@@ -1,13 +1,59 @@
 package org.javen.integration;
 
+import org.apache.maven.shared.invoker.DefaultInvocationRequest;
+import org.apache.maven.shared.invoker.InvocationOutputHandler;
+import org.apache.maven.shared.invoker.InvocationResult;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.javen.integration.Reactor.*;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 public class ReactorTest {
 
@@ -33,6 +79,1170 @@ public class ReactorTest {
     }
 
 
+    @Test
+    public void testCopyDirWithPredicates(){
+        Assert.assertTrue(Reactor.copy("src/test/resources/copy/copyDir", TARGET_DELIVERY, null, s -> s.endsWith("subTest.json")));
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/test.json").exists());
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/testDir").isDirectory());
+        Assert.assertFalse(new File(TARGET_DELIVERY + "/testDir/subTest.json").exists());
+    }
+
+    @Test
+    public void testCopyWithHardLinks() throws Exception {
+        CopyOperation copy = prepareCopy("src/test/resources/copy/copyDir", TARGET_DELIVERY + "/linked").hardLinks();
+        Assert.assertTrue(copy.execute());
+        Assert.assertEquals(2, copy.files());
+        Assert.assertArrayEquals(Files.readAllBytes(new File("src/test/resources/copy/copyDir/test.json").toPath()),
+                Files.readAllBytes(new File(TARGET_DELIVERY + "/linked/test.json").toPath()));
+    }
+
+    @Test
+    public void testSyncSkipsUnchangedAndDeletesExtraneous() throws Exception {
+        String staging = TARGET_DELIVERY + "/staging";
+        Assert.assertTrue(prepareCopy("src/test/resources/copy/copyDir", staging).sync().execute());
+        Files.write(new File(staging + "/obsolete.json").toPath(), "{}".getBytes());
+
+        CopyOperation resync = prepareCopy("src/test/resources/copy/copyDir", staging).deleteExtraneous();
+        Assert.assertTrue(resync.execute());
+        Assert.assertEquals(0, resync.files());
+        Assert.assertEquals(2, resync.skipped());
+        Assert.assertEquals(1, resync.deleted());
+        Assert.assertFalse(new File(staging + "/obsolete.json").exists());
+
+        Files.write(new File(staging + "/test.json").toPath(), "{\"changed\": true}".getBytes());
+        CopyOperation checksumSync = prepareCopy("src/test/resources/copy/copyDir", staging).checksum();
+        Assert.assertTrue(checksumSync.execute());
+        Assert.assertEquals(1, checksumSync.files());
+    }
+
+    @Test
+    public void testDeleteMatching(){
+        Reactor.copy("src/test/resources/copy/copyDir", TARGET_DELIVERY);
+        delete(TARGET_DELIVERY, name -> name.equals("testDir") || name.equals("test.json"));
+        Assert.assertTrue(new File(TARGET_DELIVERY).isDirectory());
+        Assert.assertEquals(0, new File(TARGET_DELIVERY).list().length);
+    }
+
+    @Test
+    public void testDeleteMatchingSparesExecutionHome(){
+        File delivery = new File(TARGET_DELIVERY).getAbsoluteFile();
+        Reactor.copy("src/test/resources/copy/copyDir", delivery + "/home");
+        Reactor.copy("src/test/resources/copy/copyDir", delivery + "/other/home");
+        String userDir = System.getProperty("user.dir");
+        System.setProperty("user.dir", delivery + "/home");
+        try {
+            delete(delivery.getPath(), name -> name.equals("home"));
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+        Assert.assertTrue(new File(delivery, "home/test.json").exists());
+        Assert.assertFalse(new File(delivery, "other/home").exists());
+
+        System.setProperty("javen.index.dir", delivery + "/indexes");
+        System.setProperty("user.dir", delivery + "/home");
+        try (FileIndex index = index(delivery.getPath())) {
+            Assert.assertFalse(index.delete(delivery.getPath(), name -> name.equals("home")));
+        } finally {
+            System.setProperty("user.dir", userDir);
+            System.clearProperty("javen.index.dir");
+        }
+        Assert.assertTrue(new File(delivery, "home/test.json").exists());
+
+        // a parent of the execution home is spared too, whether it matches itself or is moved to the trash
+        System.setProperty("user.dir", delivery + "/home/testDir");
+        try {
+            delete(delivery + "/home", name -> true);
+            Assert.assertFalse(deleteInBackground(delivery + "/home"));
+            Assert.assertFalse(delete(delivery + "/home"));
+        } finally {
+            System.setProperty("user.dir", userDir);
+        }
+        Assert.assertTrue(new File(delivery, "home/testDir/subTest.json").exists());
+    }
+
+    @Test
+    public void testDeleteInBackground(){
+        Reactor.copy("src/test/resources/copy/copyDir", TARGET_DELIVERY + "/old");
+        Assert.assertTrue(deleteInBackground(TARGET_DELIVERY + "/old"));
+        Assert.assertFalse(new File(TARGET_DELIVERY + "/old").exists());
+        Assert.assertTrue(awaitBackgroundDeletes());
+        Assert.assertEquals(0, new File(TARGET_DELIVERY).list().length);
+    }
+
+    @Test
+    public void testZipDir() throws Exception {
+        String zip = TARGET_DELIVERY + "/copyDir.zip";
+        Assert.assertTrue(Reactor.zip("src/test/resources/copy/copyDir", zip));
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            Assert.assertNotNull(zipFile.getEntry("testDir/"));
+            ZipEntry entry = zipFile.getEntry("testDir/subTest.json");
+            byte[] expected = Files.readAllBytes(new File("src/test/resources/copy/copyDir/testDir/subTest.json").toPath());
+            byte[] actual = new byte[expected.length];
+            new DataInputStream(zipFile.getInputStream(entry)).readFully(actual);
+            Assert.assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testZipEngineStoresCompressedContentAndSpillsLargeEntries() throws Exception {
+        createDirs(TARGET_DELIVERY + "/zipSource");
+        byte[] text = new byte[64 * 1024];
+        Arrays.fill(text, (byte) 'a');
+        Files.write(new File(TARGET_DELIVERY + "/zipSource/big.txt").toPath(), text);
+        Files.write(new File(TARGET_DELIVERY + "/zipSource/lib.jar").toPath(), text);
+        ZipEngine engine = new ZipEngine().threads(2).level(9);
+        engine.inMemoryLimit = 1024;
+        String zip = TARGET_DELIVERY + "/engine.zip";
+        try (FileChannel channel = FileChannel.open(new File(zip).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            engine.write(listOf(
+                    new ZipSource(new File(TARGET_DELIVERY + "/zipSource/big.txt"), "big.txt"),
+                    new ZipSource(new File(TARGET_DELIVERY + "/zipSource/lib.jar"), "lib.jar")), channel);
+        }
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            Assert.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("big.txt").getMethod());
+            Assert.assertEquals(ZipEntry.STORED, zipFile.getEntry("lib.jar").getMethod());
+            byte[] actual = new byte[text.length];
+            new DataInputStream(zipFile.getInputStream(zipFile.getEntry("big.txt"))).readFully(actual);
+            Assert.assertArrayEquals(text, actual);
+        }
+    }
+
+    @Test
+    public void testAbortedZipLeavesNoSpillFile() throws Exception {
+        createDirs(TARGET_DELIVERY + "/zipSource");
+        byte[] text = new byte[256 * 1024];
+        Arrays.fill(text, (byte) 'a');
+        List<ZipSource> sources = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            File file = new File(TARGET_DELIVERY + "/zipSource/big" + i + ".txt");
+            Files.write(file.toPath(), text);
+            sources.add(new ZipSource(file, file.getName()));
+        }
+        File tmp = new File(System.getProperty("java.io.tmpdir"));
+        FilenameFilter spillFiles = (dir, name) -> name.startsWith("javen-zip");
+        int spillsBefore = tmp.list(spillFiles).length;
+        ZipEngine engine = new ZipEngine().threads(4);
+        engine.inMemoryLimit = 1024;
+        WritableByteChannel failing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            engine.write(sources, failing);
+            Assert.fail("the channel is failing");
+        } catch (IOException e) {
+            Assert.assertEquals("disk full", e.getMessage());
+        }
+        Assert.assertEquals(spillsBefore, tmp.list(spillFiles).length);
+    }
+
+    @Test
+    public void testZipOperationAssemblesSeveralSources() throws Exception {
+        String module = TARGET_DELIVERY + "/module/target";
+        Reactor.copy("src/test/resources/copy/copyDir", module);
+        Files.write(new File(module + "/.hidden").toPath(), "hidden".getBytes());
+        Files.write(new File(module + "/build.tmp").toPath(), "tmp".getBytes());
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        ZipOperation zip = prepareZip(null)
+                .add(module, "delivery/module")
+                .add("src/test/resources/copy/copyDir/test.json", "delivery/conf/")
+                .exclude(path -> path.endsWith(".tmp"));
+        Assert.assertTrue(zip.writeTo(Channels.newChannel(archive)).succeeded());
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                names.add(entry.getName());
+            }
+        }
+        Assert.assertEquals(Arrays.asList("delivery/", "delivery/module/", "delivery/module/.hidden", "delivery/module/test.json",
+                "delivery/module/testDir/", "delivery/module/testDir/subTest.json", "delivery/conf/", "delivery/conf/test.json"), names);
+        Assert.assertEquals(archive.size(), zip.bytes());
+
+        // the predicates select the same files as for a copy, directories left out included
+        ByteArrayOutputStream jsons = new ByteArrayOutputStream();
+        Assert.assertTrue(prepareZip(null).add("src/test/resources/copy/copyDir", "").include(path -> path.endsWith(".json"))
+                .writeTo(Channels.newChannel(jsons)).succeeded());
+        names.clear();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(jsons.toByteArray()))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                names.add(entry.getName());
+            }
+        }
+        Assert.assertEquals(Arrays.asList("test.json", "testDir/subTest.json"), names);
+        Assert.assertTrue(prepareCopy("src/test/resources/copy/copyDir", TARGET_DELIVERY + "/jsons").include(path -> path.endsWith(".json")).execute());
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/jsons/testDir/subTest.json").isFile());
+
+        // a file channel of the caller is left open as well
+        try (FileChannel channel = FileChannel.open(new File(TARGET_DELIVERY + "/assembled.zip").toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Assert.assertTrue(zip.writeTo(channel).succeeded());
+            Assert.assertTrue(channel.isOpen());
+            Assert.assertEquals(zip.bytes(), channel.size());
+        }
+    }
+
+    @Test
+    public void testZipWriterWritesZip64EndRecords() throws Exception {
+        String zip = TARGET_DELIVERY + "/many.zip";
+        try (FileChannel channel = FileChannel.open(new File(zip).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ZipWriter writer = new ZipWriter(channel);
+            for (int i = 0; i < 70000; i++) {
+                writer.write(new CompressedEntry("dir" + i + "/", 0));
+            }
+            writer.finish();
+        }
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            Assert.assertEquals(70000, zipFile.size());
+            Assert.assertNotNull(zipFile.getEntry("dir69999/"));
+        }
+        try (FileChannel channel = FileChannel.open(new File(zip).toPath(), StandardOpenOption.READ)) {
+            Assert.assertEquals(70000, UnzipOperation.readCentralDirectory(channel).size());
+        }
+    }
+
+    @Test
+    public void testZipWriterWritesZip64OffsetsBeyond4GB() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        ZipWriter writer = new ZipWriter(Channels.newChannel(archive));
+        // the entry is written as if 5 GB of entries preceded it
+        long start = 5L * 1024 * 1024 * 1024;
+        writer.offset = start;
+        CompressedEntry entry = new CompressedEntry("big.bin", 0);
+        entry.data = "data".getBytes(StandardCharsets.UTF_8);
+        entry.size = entry.compressedSize = entry.data.length;
+        writer.write(entry);
+        writer.finish();
+
+        ByteBuffer zip = ByteBuffer.wrap(archive.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        Assert.assertEquals(0x04034b50, zip.getInt(0));
+        Assert.assertEquals(45, zip.getShort(4));
+        Assert.assertEquals(0, zip.getShort(28));
+        int central = 30 + 7 + 4;
+        Assert.assertEquals(0x02014b50, zip.getInt(central));
+        Assert.assertEquals(45, zip.getShort(central + 6));
+        Assert.assertEquals(12, zip.getShort(central + 30));
+        Assert.assertEquals(-1, zip.getInt(central + 42));
+        Assert.assertEquals(1, zip.getShort(central + 53));
+        Assert.assertEquals(8, zip.getShort(central + 55));
+        Assert.assertEquals(start, zip.getLong(central + 57));
+        int zip64End = central + 46 + 7 + 12;
+        Assert.assertEquals(0x06064b50, zip.getInt(zip64End));
+        Assert.assertEquals(1, zip.getLong(zip64End + 32));
+        Assert.assertEquals(65, zip.getLong(zip64End + 40));
+        Assert.assertEquals(start + central, zip.getLong(zip64End + 48));
+        int locator = zip64End + 56;
+        Assert.assertEquals(0x07064b50, zip.getInt(locator));
+        Assert.assertEquals(start + zip64End, zip.getLong(locator + 8));
+        int end = locator + 20;
+        Assert.assertEquals(0x06054b50, zip.getInt(end));
+        Assert.assertEquals(-1, zip.getInt(end + 16));
+        Assert.assertEquals(end + 22, archive.size());
+        Assert.assertEquals(start + archive.size(), writer.offset);
+    }
+
+    @Test
+    public void testUnzipExtractsSelectedEntriesAndRejectsZipSlip() throws Exception {
+        String zip = TARGET_DELIVERY + "/copyDir.zip";
+        Assert.assertTrue(Reactor.zip("src/test/resources/copy/copyDir", zip));
+        UnzipOperation unzip = prepareUnzip(zip, TARGET_DELIVERY + "/extracted").exclude(name -> name.endsWith("test.json"));
+        Assert.assertTrue(unzip.execute());
+        Assert.assertEquals(1, unzip.files());
+        Assert.assertFalse(new File(TARGET_DELIVERY + "/extracted/test.json").exists());
+        Assert.assertArrayEquals(Files.readAllBytes(new File("src/test/resources/copy/copyDir/testDir/subTest.json").toPath()),
+                Files.readAllBytes(new File(TARGET_DELIVERY + "/extracted/testDir/subTest.json").toPath()));
+
+        String malicious = TARGET_DELIVERY + "/malicious.zip";
+        byte[] large = new byte[3 * 1024 * 1024];
+        Arrays.fill(large, (byte) 'a');
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(malicious))) {
+            out.putNextEntry(new ZipEntry("lib/large.txt"));
+            out.write(large);
+            out.putNextEntry(new ZipEntry("../evil.txt"));
+            out.write("evil".getBytes());
+        }
+        Assert.assertFalse(unzip(malicious, TARGET_DELIVERY + "/unsafe"));
+        Assert.assertFalse(new File(TARGET_DELIVERY + "/evil.txt").exists());
+        Assert.assertArrayEquals(large, Files.readAllBytes(new File(TARGET_DELIVERY + "/unsafe/lib/large.txt").toPath()));
+    }
+
+    /**
+     * run against the multi-release jar by the test-java21 execution of the java21 profile, with a single carrier thread:
+     * an operation blocking its virtual thread while holding a monitor would never let its sub tasks run
+     */
+    @Test
+    public void testVirtualThreadsRunConcurrentOperations() throws Exception {
+        Assume.assumeTrue(ReactorThreads.class.getDeclaredField("VIRTUAL").getBoolean(null));
+        CopyOperation copy = prepareCopy("src/test/resources/copy/copyDir", TARGET_DELIVERY + "/virtual");
+        ZipOperation zip = prepareZip(TARGET_DELIVERY + "/virtual.zip").add("src/test/resources/copy/copyDir", "");
+        List<CompletableFuture<Result>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(copy.executeAsync());
+            results.add(zip.executeAsync());
+        }
+        for (CompletableFuture<Result> result : results) {
+            Assert.assertTrue(result.get(30, TimeUnit.SECONDS).succeeded());
+        }
+        UnzipOperation unzip = prepareUnzip(TARGET_DELIVERY + "/virtual.zip", TARGET_DELIVERY + "/unzipped");
+        List<CompletableFuture<Result>> extractions = Arrays.asList(unzip.executeAsync(), unzip.executeAsync());
+        for (CompletableFuture<Result> extraction : extractions) {
+            Assert.assertTrue(extraction.get(30, TimeUnit.SECONDS).succeeded());
+        }
+        Assert.assertEquals(2, copy.files());
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/unzipped/testDir/subTest.json").isFile());
+        try (FileIndex index = index(TARGET_DELIVERY)) {
+            Assert.assertEquals(2, index.find(TARGET_DELIVERY + "/unzipped", name -> name.endsWith(".json")).size());
+            Assert.assertTrue(index.delete(TARGET_DELIVERY, name -> name.equals("unzipped")));
+        }
+        Assert.assertFalse(new File(TARGET_DELIVERY + "/unzipped").exists());
+    }
+
+    @Test
+    public void testPomModel(){
+        PomModel model = mvn.pom("src/test/resources/scheduler/web/pom.xml");
+        Assert.assertEquals("org.javen.test", model.getGroupId());
+        Assert.assertEquals("web", model.getArtifactId());
+        Assert.assertEquals(2, model.getDependencies().size());
+        Assert.assertEquals("junit:junit:4.13.2", model.getDependencies().get(1).toString());
+        Assert.assertSame(model, mvn.pom("src/test/resources/scheduler/web/pom.xml"));
+
+        Map<String, String> properties = mvn.mvnProjectProperties("pom.xml");
+        Assert.assertEquals("1.8", properties.get("maven.compiler.source"));
+        Assert.assertEquals("1.8", properties.get("maven.compiler.target"));
+    }
+
+    @Test
+    public void testEffectivePomInheritsAndInterpolates(){
+        MvnProject project = mvn.project("src/test/resources/effective/child");
+        Assert.assertEquals("org.javen.test", project.groupId);
+        Assert.assertEquals("2.1.0", project.version);
+        Assert.assertEquals("3.1", project.properties.get("library.version"));
+        Assert.assertEquals("effective-child-javen-2.1.0", project.properties.get("child.label"));
+        Assert.assertEquals(listOf("org.javen.test:effective-parent", "org.javen.test:library"), project.dependencies);
+    }
+
+    @Test
+    public void testSchedulerFollowsDependencies(){
+        List<String> built = Collections.synchronizedList(new ArrayList<>());
+        boolean success = mvn.scheduler(listOf(
+                mvn.project(schedulerProject("web")),
+                mvn.project(schedulerProject("service")),
+                mvn.project(schedulerProject("core"))))
+                .threads(3)
+                .perProject(project -> built.add(project.artifactId))
+                .execute("building test projects");
+        Assert.assertTrue(success);
+        Assert.assertEquals(listOf("core", "service", "web"), built);
+    }
+
+    @Test
+    public void testSchedulerSkipsDownstreamOfFailure(){
+        List<String> built = Collections.synchronizedList(new ArrayList<>());
+        boolean success = mvn.scheduler(listOf(
+                mvn.project(schedulerProject("web")),
+                mvn.project(schedulerProject("service")),
+                mvn.project(schedulerProject("core"))))
+                .perProject(project -> {
+                    built.add(project.artifactId);
+                    project.failed = project.artifactId.equals("service");
+                })
+                .execute("building test projects");
+        Assert.assertFalse(success);
+        Assert.assertEquals(listOf("core", "service"), built);
+        Assert.assertTrue(results().snapshot(Status.SKIPPED).stream()
+                .anyMatch(result -> result.getProject().equals("web") && result.getError().equals("service failed")));
+    }
+
+    @Test
+    public void testResultRegistryAcceptsConcurrentProducers() throws Exception {
+        ResultRegistry registry = new ResultRegistry(1000);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    registry.add(new Result(Result.Type.MAVEN, "p" + i, "building", i % 2 == 0 ? Status.OK : Status.KO, 0, 10, i % 2, ""));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Assert.assertEquals(1000, registry.count(Status.OK));
+        Assert.assertEquals(1000, registry.count(Status.KO));
+        Assert.assertEquals(1000, registry.snapshot().size());
+        Assert.assertEquals(1000, registry.evicted());
+        Assert.assertEquals(10, registry.snapshot().get(0).getDurationMillis());
+    }
+
+
+    @Test
+    public void testFingerprintTracksInputs() throws Exception {
+        Reactor.copy("src/test/resources/scheduler/core", TARGET_DELIVERY);
+        createDirs(TARGET_DELIVERY + "/src/main/java");
+        Files.write(new File(TARGET_DELIVERY + "/src/main/java/A.java").toPath(), "class A {}".getBytes());
+        String pom = TARGET_DELIVERY + "/pom.xml";
+
+        String first = inputsFingerprint(TARGET_DELIVERY, pom, "clean install");
+        Assert.assertEquals(first, inputsFingerprint(TARGET_DELIVERY, pom, "clean install"));
+        Assert.assertNotEquals(first, inputsFingerprint(TARGET_DELIVERY, pom, "clean deploy"));
+
+        Files.write(new File(TARGET_DELIVERY + "/src/main/java/A.java").toPath(), "class A { }".getBytes());
+        Assert.assertNotEquals(first, inputsFingerprint(TARGET_DELIVERY, pom, "clean install"));
+    }
+
+    @Test
+    public void testUpToDateExecutionSkipsMaven() throws Exception {
+        Reactor.copy("src/test/resources/scheduler/core", TARGET_DELIVERY);
+        MvnProject project = mvn.project(TARGET_DELIVERY);
+        MvnExecutor executor = project.prepareCleanInstall().upToDateCheck();
+        File stamp = executor.fingerprintFile();
+        stamp.getParentFile().mkdirs();
+        Files.write(stamp.toPath(), executor.fingerprint().getBytes());
+
+        AtomicBoolean success = new AtomicBoolean();
+        executor.onSuccess(() -> success.set(true)).execute("building");
+        Assert.assertTrue(success.get());
+        Assert.assertFalse(project.hasFailed());
+    }
+
+
+    @Test
+    public void testLineOutputStreamSplitsLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (LineOutputStream out = new LineOutputStream(lines::add)) {
+            out.write("first\r\nsecond\n\nd\u00e9j\u00e0".getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals(Arrays.asList("first", "second", "", "d\u00e9j\u00e0"), lines);
+    }
+
+    @Test
+    public void testEnginesFallBackToForkedWithoutInstallation() {
+        Assert.assertSame(mvn.FORKED, mvn.embeddedEngine(null));
+        Assert.assertSame(mvn.FORKED, mvn.daemonEngine(null));
+        Assert.assertTrue(mvn.daemonEngine(new File("/opt/mvnd/bin/mvnd")) instanceof ProcessMvnEngine);
+
+        File mavenHome = new File(TARGET_DELIVERY + "/maven");
+        Assert.assertTrue(new File(mavenHome, "lib").mkdirs());
+        String previous = System.getProperty("maven.home");
+        System.setProperty("maven.home", mavenHome.getPath());
+        try {
+            Assert.assertEquals(mavenHome, EmbeddedMvnEngine.findMavenHome());
+        } finally {
+            if (previous == null) {
+                System.clearProperty("maven.home");
+            } else {
+                System.setProperty("maven.home", previous);
+            }
+        }
+    }
+
+    @Test
+    public void testEmbeddedEngineRestoresOnlyMavenProperties() throws Exception {
+        File mavenHome = new File(TARGET_DELIVERY + "/maven");
+        File lib = new File(mavenHome, "lib");
+        Assert.assertTrue(lib.mkdirs());
+        File mvnExecutable = new File(mavenHome, "bin/mvn");
+        Assert.assertTrue(mvnExecutable.getParentFile().mkdirs());
+        Files.write(mvnExecutable.toPath(), "#!/bin/sh\n".getBytes());
+        Assert.assertTrue(mvnExecutable.setExecutable(true));
+        String cliClass = "org/apache/maven/cli/MavenCli.class";
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(new File(lib, "maven-embedder.jar")));
+             InputStream in = getClass().getClassLoader().getResourceAsStream(cliClass)) {
+            jar.putNextEntry(new ZipEntry(cliClass));
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                jar.write(buffer, 0, read);
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        DefaultInvocationRequest request = new DefaultInvocationRequest();
+        request.setGoals(listOf("validate"));
+        request.setBaseDirectory(new File("."));
+        request.setOutputHandler(lines::add);
+        try {
+            InvocationResult result = mvn.embeddedEngine(mavenHome).execute(request);
+            Assert.assertEquals(0, result.getExitCode());
+            Assert.assertEquals("[INFO] BUILD SUCCESS", lines.get(lines.size() - 1));
+            Assert.assertNull(System.getProperty("javen.test.maven"));
+            Assert.assertEquals("set meanwhile", System.getProperty("javen.test.other"));
+        } finally {
+            System.clearProperty("javen.test.other");
+        }
+    }
+
+    @Test
+    public void testBatchedExecutionsAreCoalesced(){
+        List<String> invocations = new ArrayList<>();
+        MvnEngine engine = recordingEngine(invocations, "never");
+        MvnProject project = mvn.project(schedulerProject("core")).batch();
+        project.prepareCleanInstall().engine(engine).execute("building");
+        project.prepareSourcesJar().engine(engine).execute("sources");
+        project.prepareJavadoc().engine(engine).userProperty("doclint", "none").execute("javadoc");
+        Assert.assertTrue(invocations.isEmpty());
+
+        Assert.assertTrue(project.flush());
+        Assert.assertEquals(2, invocations.size());
+        Assert.assertTrue(invocations.get(0).endsWith("clean install generate-sources source:jar"));
+        Assert.assertTrue(invocations.get(1).endsWith("generate-sources javadoc:javadoc"));
+    }
+
+    @Test
+    public void testFailedCoalescedExecutionIsReplayed(){
+        List<String> invocations = new ArrayList<>();
+        MvnEngine engine = recordingEngine(invocations, "source:jar");
+        AtomicBoolean installSucceeded = new AtomicBoolean();
+        AtomicBoolean sourcesFailed = new AtomicBoolean();
+        MvnProject project = mvn.project(schedulerProject("core")).batch();
+        project.prepareCleanInstall().engine(engine).onSuccess(() -> installSucceeded.set(true)).execute("building");
+        project.prepareSourcesJar().engine(engine).onFail(() -> sourcesFailed.set(true)).execute("sources");
+
+        Assert.assertFalse(project.flush());
+        Assert.assertEquals(3, invocations.size());
+        Assert.assertTrue(installSucceeded.get());
+        Assert.assertTrue(sourcesFailed.get());
+    }
+
+    @Test
+    public void testFailedCoalescedExecutionReplaysOnlyTheNextOnes(){
+        List<String> invocations = new ArrayList<>();
+        MvnEngine engine = request -> {
+            String commandLine = String.join(" ", request.getGoals());
+            InvocationOutputHandler output = request.getOutputHandler(null);
+            List<String> lines = commandLine.contains("clean install") ? listOf(
+                    "[INFO] --- maven-clean-plugin:3.1.0:clean (default-clean) @ core ---",
+                    "[INFO] --- maven-install-plugin:2.5.2:install (default-install) @ core ---",
+                    "[INFO] --- maven-source-plugin:3.2.1:jar (default-cli) @ core ---",
+                    "[INFO] BUILD FAILURE") : Collections.emptyList();
+            for (String line : lines) {
+                try {
+                    output.consumeLine(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return recordingEngine(invocations, "source:jar").execute(request);
+        };
+        AtomicBoolean installSucceeded = new AtomicBoolean();
+        AtomicBoolean sourcesFailed = new AtomicBoolean();
+        AtomicBoolean javadocSucceeded = new AtomicBoolean();
+        MvnProject project = mvn.project(schedulerProject("core")).batch();
+        project.prepareCleanInstall().engine(engine).onSuccess(() -> installSucceeded.set(true)).execute("building");
+        project.prepareSourcesJar().engine(engine).onFail(() -> sourcesFailed.set(true)).execute("sources");
+        project.prepareJavadocJar().engine(engine).onSuccess(() -> javadocSucceeded.set(true)).execute("javadoc");
+
+        Assert.assertFalse(project.flush());
+        Assert.assertEquals(2, invocations.size());
+        Assert.assertTrue(invocations.get(1).contains("javadoc:jar"));
+        Assert.assertFalse(invocations.get(1).contains("install"));
+        Assert.assertTrue(installSucceeded.get());
+        Assert.assertTrue(sourcesFailed.get());
+        Assert.assertTrue(javadocSucceeded.get());
+    }
+
+    @Test
+    public void testSchedulerDiscardsExecutionsQueuedBeforeAnError() throws Exception {
+        List<String> invocations = new ArrayList<>();
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        MvnProject core = mvn.project(schedulerProject("core"));
+        boolean success = mvn.scheduler(listOf(core)).perProject(project -> {
+            project.batch();
+            futures.add(project.prepareCleanInstall().engine(recordingEngine(invocations, "never")).executeAsync("building", Runnable::run));
+            throw new IllegalStateException("broken build script");
+        }).execute("building");
+        Assert.assertFalse(success);
+        Assert.assertTrue(invocations.isEmpty());
+        Assert.assertEquals(Status.KO, futures.get(0).get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    public void testMojoTimerParsesMavenOutput() throws Exception {
+        MojoTimer timer = new MojoTimer("building");
+        timer.consumeLine("[INFO] Scanning for projects...");
+        timer.consumeLine("[\u001B[1;34mINFO\u001B[m] \u001B[1m--- \u001B[0;32mcompiler:3.13.0:compile\u001B[m \u001B[1m(default-compile)\u001B[m @ \u001B[36mcore\u001B[0;1m ---\u001B[m");
+        timer.consumeLine("[INFO] Compiling 1 source file");
+        timer.consumeLine("[INFO] -------------------------------------------------------");
+        timer.consumeLine("[INFO] --- surefire:3.2.5:test (default-test) @ core ---");
+        timer.consumeLine("[INFO] ------------------------------------------------------------------------");
+        timer.consumeLine("[INFO] BUILD SUCCESS");
+        List<MojoTiming> timings = timer.finish();
+        Assert.assertEquals(2, timings.size());
+        Assert.assertEquals("compiler:3.13.0:compile", timings.get(0).getMojo());
+        Assert.assertEquals("default-compile", timings.get(0).getExecution());
+        Assert.assertEquals("core", timings.get(1).getProject());
+        Assert.assertTrue(timings.get(0).toJson().startsWith("{\"invocation\": \"building\", \"project\": \"core\""));
+        Assert.assertTrue(timings.get(1).toCsv().startsWith("\"building\",\"core\",\"surefire:3.2.5:test\",\"default-test\","));
+    }
+
+    @Test
+    public void testAsyncExecutionsCanBeChained() throws Exception {
+        List<String> invocations = Collections.synchronizedList(new ArrayList<>());
+        MvnEngine engine = recordingEngine(invocations, "deploy");
+        CompletableFuture<Result> core = mvn.project(schedulerProject("core")).prepareCleanInstall().engine(engine).executeAsync("building");
+        CompletableFuture<Result> service = mvn.project(schedulerProject("service")).prepareCleanDeploy().engine(engine).executeAsync("deploying");
+        CompletableFuture<Result> zip = core.thenCombine(service, (a, b) -> a.succeeded() && !b.succeeded())
+                .thenCompose(expected -> {
+                    Assert.assertTrue(expected);
+                    return zipAsync("src/test/resources/copy/copyDir", TARGET_DELIVERY + "/copyDir.zip");
+                });
+        CompletableFuture<Result> copy = copyAsync("src/test/resources/copy/copyDir", TARGET_DELIVERY + "/copy");
+        CompletableFuture.allOf(zip, copy).get(30, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, invocations.size());
+        Assert.assertEquals("core", core.get().getProject());
+        Assert.assertEquals(1, service.get().getExitCode());
+        Assert.assertEquals(Status.KO, service.get().getStatus());
+        Assert.assertEquals(Result.Type.ZIP, zip.get().getType());
+        Assert.assertTrue(zip.get().succeeded());
+        Assert.assertTrue(copy.get().succeeded());
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/copy/test.json").exists());
+    }
+
+    @Test
+    public void testBatchedAsyncExecutionCompletesOnFlush() throws Exception {
+        List<String> invocations = new ArrayList<>();
+        MvnProject project = mvn.project(schedulerProject("core")).batch();
+        CompletableFuture<Result> future = project.prepareCleanInstall().engine(recordingEngine(invocations, "never")).executeAsync("building", Runnable::run);
+        Assert.assertFalse(future.isDone());
+        Assert.assertTrue(project.flush());
+        Assert.assertTrue(future.get().succeeded());
+        Assert.assertEquals("core : building", future.get().getMessage());
+    }
+
+    @Test
+    public void testFlushCompletesFuturesWhenAnOperationThrows() {
+        List<String> invocations = new ArrayList<>();
+        MvnProject project = mvn.project(schedulerProject("core")).batch();
+        CompletableFuture<Result> install = project.prepareCleanInstall().engine(recordingEngine(invocations, "never"))
+                .onSuccess(() -> {
+                    throw new IllegalStateException("broken success operation");
+                })
+                .executeAsync("building", Runnable::run);
+        CompletableFuture<Result> sources = project.prepareSourcesJar().engine(recordingEngine(invocations, "never"))
+                .executeAsync("sources", Runnable::run);
+        try {
+            project.flush();
+            Assert.fail("the success operation throws");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("broken success operation", e.getMessage());
+        }
+        Assert.assertTrue(install.isCompletedExceptionally());
+        Assert.assertTrue(sources.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testFileIndexAnswersFindAndDelete() throws Exception {
+        System.setProperty("javen.index.dir", TARGET_DELIVERY + "/indexes");
+        String tree = TARGET_DELIVERY + "/tree";
+        Reactor.copy("src/test/resources/copy/copyDir", tree);
+        try (FileIndex index = index(tree)) {
+            Assert.assertEquals(2, index.directories());
+            Assert.assertEquals(1, find(tree, name -> name.endsWith(".json") && name.startsWith("sub")).size());
+
+            Files.write(new File(tree + "/testDir/other.json").toPath(), "{}".getBytes());
+            Assert.assertEquals(3, find(tree, name -> name.endsWith(".json")).size());
+
+            index.watch();
+            delete(tree, name -> name.equals("testDir"));
+            Assert.assertFalse(new File(tree + "/testDir").exists());
+            Assert.assertEquals(1, index.directories());
+            Assert.assertEquals(1, find(tree, name -> name.endsWith(".json")).size());
+        }
+        Assert.assertNull(indexOf(new File(tree)));
+        try (FileIndex reloaded = new FileIndex(new File(tree).toPath().toAbsolutePath().normalize()).open()) {
+            Assert.assertEquals(1, reloaded.directories());
+            Assert.assertEquals(1, reloaded.find(tree, name -> name.equals("test.json")).size());
+        } finally {
+            System.clearProperty("javen.index.dir");
+        }
+    }
+
+    @Test
+    public void testWatcherRebuildsChangedProjectsOnly() throws Exception {
+        String projectDir = TARGET_DELIVERY + "/watched";
+        Reactor.copy("src/test/resources/scheduler/core", projectDir);
+        createDirs(projectDir + "/src/main/java");
+        createDirs(projectDir + "/target");
+        List<String> invocations = Collections.synchronizedList(new ArrayList<>());
+        MvnEngine engine = recordingEngine(invocations, "never");
+        MvnWatcher watcher = mvn.watcher(listOf(mvn.project(projectDir)))
+                .debounce(50)
+                .perProject(project -> project.prepareCleanInstall().engine(engine).execute("building"));
+        CompletableFuture<Boolean> watching = CompletableFuture.supplyAsync(() -> watcher.watch("watching"));
+        try {
+            Assert.assertTrue(watcher.awaitWatching(10, TimeUnit.SECONDS));
+            Files.write(new File(projectDir + "/target/output.txt").toPath(), "ignored".getBytes());
+            // a hidden file is watched but ignored: its batch is dropped, the target directory is not even watched
+            Files.write(new File(projectDir + "/.ignored").toPath(), "ignored".getBytes());
+            Assert.assertTrue(watcher.awaitBatches(1, 10, TimeUnit.SECONDS));
+            Assert.assertEquals(0, watcher.rebuilds());
+
+            Files.write(new File(projectDir + "/src/main/java/A.java").toPath(), "class A {}".getBytes());
+            Files.write(new File(projectDir + "/src/main/java/B.java").toPath(), "class B {}".getBytes());
+            Assert.assertTrue(watcher.awaitBatches(2, 10, TimeUnit.SECONDS));
+        } finally {
+            watcher.stop();
+        }
+        Assert.assertTrue(watching.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, watcher.rebuilds());
+        Assert.assertEquals(1, invocations.size());
+    }
+
+    @Test
+    public void testTimedOutInvocationKillsProcessTree() throws Exception {
+        Assume.assumeTrue(new File("/proc/self").isDirectory());
+        File pidFile = new File(TARGET_DELIVERY + "/child.pid").getAbsoluteFile();
+        File fakeMaven = new File(TARGET_DELIVERY + "/bin/mvn").getAbsoluteFile();
+        createDirs(fakeMaven.getParent());
+        Files.write(fakeMaven.toPath(), ("#!/bin/sh\nsleep 60 &\necho $! > " + pidFile + "\necho started\nwait\n").getBytes());
+        Assert.assertTrue(fakeMaven.setExecutable(true));
+
+        MvnInvocation invocation = new MvnInvocation(TimeUnit.SECONDS.toMillis(1));
+        long start = System.currentTimeMillis();
+        Result result = mvn.invoke(new ProcessMvnEngine(fakeMaven), invocation, null, "core : hanging", "-f src/test/resources/scheduler/core/pom.xml", "install");
+        Assert.assertEquals(Status.TIMED_OUT, result.getStatus());
+        Assert.assertFalse(result.succeeded());
+        Assert.assertTrue(System.currentTimeMillis() - start < 10_000);
+
+        String childPid = new String(Files.readAllBytes(pidFile.toPath())).trim();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (isRunning(childPid) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertFalse(isRunning(childPid));
+    }
+
+    @Test
+    public void testCancelledExecutionDoesNotInvokeMaven() {
+        List<String> invocations = new ArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        MvnExecutor executor = mvn.project(schedulerProject("core")).prepareCleanInstall()
+                .engine(recordingEngine(invocations, "never"))
+                .onFail(() -> failed.set(true));
+        executor.cancel().execute("building");
+        Assert.assertTrue(invocations.isEmpty());
+        Assert.assertTrue(failed.get());
+    }
+
+    @Test
+    public void testResourceControllerSharesCoresBetweenInvocations() throws Exception {
+        ResourceController controller = new ResourceController(8, 4096).heap(256, 2048).forkHeap(256);
+        Allocation alone = controller.acquire();
+        Assert.assertEquals(8, alone.threads);
+        Assert.assertEquals(2048, alone.heapMb);
+        // -T 2 modules running 4 forks each
+        Assert.assertEquals(2, alone.builders());
+        Assert.assertEquals(8, alone.forks());
+        Assert.assertEquals(2048 + 8 * 256, alone.memoryMb());
+        controller.release(alone);
+
+        controller.plan(4);
+        Allocation first = controller.acquire();
+        Allocation second = controller.acquire();
+        Assert.assertEquals(2, first.threads);
+        // the share of 1024 MB holds the maven heap and the heaps of the forks of the 2 modules built at once
+        Assert.assertEquals(512, second.heapMb);
+        Assert.assertEquals(1024, second.memoryMb());
+        Assert.assertEquals(Arrays.asList("-DforkCount=1", "-DargLine=-Xmx256m"), first.arguments(Arrays.asList("clean install", "-T 1C")));
+        Assert.assertEquals(Arrays.asList("-T 2", "-DforkCount=1"), first.arguments(Arrays.asList("clean install", "-DargLine=-Xmx1g")));
+        Assert.assertEquals("-Xms64m -Xmx512m -XX:CICompilerCount=2", first.mavenOpts("-Xms64m"));
+        controller.release(first);
+        controller.release(second);
+        controller.plan(-4);
+        Assert.assertEquals(0, controller.running());
+
+        List<String> invocations = new ArrayList<>();
+        mvn.resources(controller);
+        try {
+            mvn.project(schedulerProject("core")).prepareCleanInstall()
+                    .engine(recordingEngine(invocations, "never"))
+                    .execute("building");
+            // an invocation interrupted while it waits for its share is not run at all
+            Allocation taken = controller.acquire();
+            Thread.currentThread().interrupt();
+            try {
+                Result interrupted = mvn.invoke(recordingEngine(invocations, "never"), null, "interrupted", "clean install");
+                Assert.assertEquals(Status.KO, interrupted.getStatus());
+                Assert.assertTrue(Thread.interrupted());
+            } finally {
+                controller.release(taken);
+            }
+        } finally {
+            mvn.resources(null);
+        }
+        Assert.assertEquals(1, invocations.size());
+        Assert.assertTrue(invocations.get(0).contains("-T 2"));
+        Assert.assertTrue(invocations.get(0).contains("-DforkCount=4"));
+        Assert.assertTrue(invocations.get(0).contains("-DargLine=-Xmx256m"));
+        Assert.assertEquals(0, controller.running());
+    }
+
+    @Test
+    public void testArtifactCacheRestoresAcrossWorkspacesAndEvicts() throws Exception {
+        ArtifactCache cache = mvn.cache(TARGET_DELIVERY + "/cache").localRepository(TARGET_DELIVERY + "/repository");
+        List<String> invocations = new ArrayList<>();
+        MvnEngine packaging = request -> {
+            String commandLine = String.join(" ", request.getGoals());
+            invocations.add(commandLine);
+            Matcher pom = Pattern.compile("-f\\s+(\\S+)").matcher(commandLine);
+            Assert.assertTrue(pom.find());
+            File jar = new File(new File(pom.group(1)).getParentFile(), "target/core-1.0.0.jar");
+            jar.getParentFile().mkdirs();
+            try {
+                Files.write(jar.toPath(), ("jar built from " + jar.getParent()).getBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return recordingEngine(new ArrayList<>(), "never").execute(request);
+        };
+        Reactor.copy("src/test/resources/scheduler/core", TARGET_DELIVERY + "/workspace1/core");
+        Reactor.copy("src/test/resources/scheduler/core", TARGET_DELIVERY + "/workspace2/core");
+        MvnProject first = mvn.project(TARGET_DELIVERY + "/workspace1/core");
+        Assert.assertTrue(first.prepareCleanInstall().engine(packaging).cache(cache).run("building").succeeded());
+        Assert.assertEquals(1, invocations.size());
+
+        MvnProject second = mvn.project(TARGET_DELIVERY + "/workspace2/core");
+        Result restored = second.prepareCleanInstall().engine(packaging).cache(cache).run("building");
+        Assert.assertEquals(Status.FROM_CACHE, restored.getStatus());
+        Assert.assertEquals(1, invocations.size());
+        Assert.assertArrayEquals(Files.readAllBytes(new File(first.targetDir, "core-1.0.0.jar").toPath()),
+                Files.readAllBytes(new File(second.targetDir, "core-1.0.0.jar").toPath()));
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/repository/org/javen/test/core/1.0.0/core-1.0.0.jar").isFile());
+        Assert.assertTrue(new File(TARGET_DELIVERY + "/repository/org/javen/test/core/1.0.0/core-1.0.0.pom").isFile());
+
+        long entrySize = cache.size();
+        cache.maxSize(entrySize);
+        createDirs(second.projectDir + "/src/main/java");
+        Files.write(new File(second.projectDir, "src/main/java/A.java").toPath(), "class A {}".getBytes());
+        Assert.assertTrue(second.prepareCleanInstall().engine(packaging).cache(cache).run("building").succeeded());
+        Assert.assertEquals(2, invocations.size());
+        Assert.assertEquals(entrySize, cache.size());
+        Assert.assertEquals(Status.OK, first.prepareCleanInstall().engine(packaging).cache(cache).run("building").getStatus());
+    }
+
+    @Test
+    public void testArtifactCacheKeyCoversParentPomsAndGroupArtifacts() throws Exception {
+        Reactor.copy("src/test/resources/effective", TARGET_DELIVERY + "/effective");
+        ArtifactCache cache = mvn.cache(TARGET_DELIVERY + "/cache").localRepository(TARGET_DELIVERY + "/repository");
+        MvnProject child = mvn.project(TARGET_DELIVERY + "/effective/child");
+        String unresolved = child.prepareCleanInstall().cache(cache).fingerprint();
+        Assert.assertEquals(unresolved, child.prepareCleanInstall().cache(cache).fingerprint());
+
+        File library = new File(TARGET_DELIVERY + "/repository/org/javen/test/library/3.1/library-3.1.jar");
+        createDirs(library.getParent());
+        Files.write(library.toPath(), "library 3.1".getBytes());
+        String resolved = child.prepareCleanInstall().cache(cache).fingerprint();
+        Assert.assertNotEquals(unresolved, resolved);
+        Files.write(library.toPath(), "library 3.1, rebuilt".getBytes());
+        String rebuilt = child.prepareCleanInstall().cache(cache).fingerprint();
+        Assert.assertNotEquals(resolved, rebuilt);
+
+        Files.write(new File(TARGET_DELIVERY + "/effective/pom.xml").toPath(), "<!-- changed -->\n".getBytes(), StandardOpenOption.APPEND);
+        Assert.assertNotEquals(rebuilt, child.prepareCleanInstall().cache(cache).fingerprint());
+    }
+
+    @Test
+    public void testArtifactCacheRestoresAllArtifactsOrNone() throws Exception {
+        ArtifactCache cache = mvn.cache(TARGET_DELIVERY + "/cache");
+        Reactor.copy("src/test/resources/scheduler/core", TARGET_DELIVERY + "/core");
+        MvnProject core = mvn.project(TARGET_DELIVERY + "/core");
+        File jar = new File(core.targetDir, "core-1.0.0.jar");
+        createDirs(core.targetDir);
+        Files.write(jar.toPath(), "previous build".getBytes());
+
+        File cached = new File(TARGET_DELIVERY + "/cached.jar");
+        Files.write(cached.toPath(), "cached build".getBytes());
+        String hash = hashFile(cached.toPath());
+        createDirs(cache.objectFile(hash).getParent());
+        Files.copy(cached.toPath(), cache.objectFile(hash).toPath());
+        createDirs(cache.entryFile("partial").getParent());
+        // the sources jar was evicted by another JVM while its entry was read
+        Files.write(cache.entryFile("partial").toPath(), ("file.core-1.0.0.jar=" + hash + "\nfile.core-1.0.0-sources.jar=" + hashString("evicted") + "\n").getBytes());
+
+        Assert.assertFalse(cache.restore("partial", core, false));
+        Assert.assertEquals("previous build", new String(Files.readAllBytes(jar.toPath())));
+        Assert.assertFalse(new File(core.targetDir, "core-1.0.0-sources.jar").exists());
+        Assert.assertEquals(0, new File(core.targetDir, ".javen").list().length);
+
+        // a corrupted object is detected before anything is replaced
+        File sources = new File(TARGET_DELIVERY + "/cached-sources.jar");
+        Files.write(sources.toPath(), "cached sources".getBytes());
+        String sourcesHash = hashFile(sources.toPath());
+        createDirs(cache.objectFile(sourcesHash).getParent());
+        Files.write(cache.objectFile(sourcesHash).toPath(), "corrupted".getBytes());
+        Files.write(cache.entryFile("complete").toPath(), ("file.core-1.0.0.jar=" + hash + "\nfile.core-1.0.0-sources.jar=" + sourcesHash + "\n").getBytes());
+        Assert.assertFalse(cache.restore("complete", core, false));
+        Assert.assertEquals("previous build", new String(Files.readAllBytes(jar.toPath())));
+
+        // an install failing once the artifacts are moved in place puts the previous ones back
+        Files.copy(sources.toPath(), cache.objectFile(sourcesHash).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        File notADirectory = new File(TARGET_DELIVERY + "/repository");
+        Files.write(notADirectory.toPath(), new byte[0]);
+        Assert.assertFalse(cache.localRepository(notADirectory.getPath()).restore("complete", core, true));
+        Assert.assertEquals("previous build", new String(Files.readAllBytes(jar.toPath())));
+        Assert.assertFalse(new File(core.targetDir, "core-1.0.0-sources.jar").exists());
+        Assert.assertEquals(0, new File(core.targetDir, ".javen").list().length);
+
+        Assert.assertTrue(cache.localRepository(TARGET_DELIVERY + "/repository-ok").restore("complete", core, true));
+        Assert.assertEquals("cached build", new String(Files.readAllBytes(jar.toPath())));
+        Assert.assertEquals("cached sources", new String(Files.readAllBytes(new File(core.targetDir, "core-1.0.0-sources.jar").toPath())));
+    }
+
+    @Test
+    public void testPrefetchResolvesOnlyMissingArtifactsThenRunsOffline() throws Exception {
+        String repository = TARGET_DELIVERY + "/repository";
+        createDirs(repository + "/junit/junit/4.13.2");
+        File junitJar = new File(repository + "/junit/junit/4.13.2/junit-4.13.2.jar");
+        Files.write(junitJar.toPath(), new byte[0]);
+        Files.write(new File(repository + "/junit/junit/4.13.2/junit-4.13.2.pom").toPath(), new byte[0]);
+        for (String name : listOf("core", "service", "web")) {
+            Reactor.copy("src/test/resources/scheduler/" + name, TARGET_DELIVERY + "/prefetch/" + name);
+        }
+        System.setProperty("maven.repo.local", repository);
+        try {
+            List<String> invocations = Collections.synchronizedList(new ArrayList<>());
+            MvnEngine engine = recordingEngine(invocations, "never");
+            List<MvnProject> projects = prefetchProjects();
+            Assert.assertTrue(mvn.prefetch(projects).engine(engine).threads(3).execute("prefetching"));
+            Assert.assertEquals(3, invocations.size());
+            Assert.assertTrue(invocations.stream().anyMatch(line -> line.contains("-DexcludeArtifactIds=core,service") && line.endsWith(DependencyPrefetch.GO_OFFLINE)));
+
+            invocations.clear();
+            projects = prefetchProjects();
+            Assert.assertTrue(mvn.prefetch(projects).engine(engine).execute("prefetching"));
+            Assert.assertTrue(invocations.isEmpty());
+            projects.get(2).prepareCleanInstall().engine(engine).execute("building");
+            Assert.assertTrue(invocations.get(0).contains(" -o "));
+
+            invocations.clear();
+            Assert.assertTrue(junitJar.delete());
+            Assert.assertTrue(mvn.prefetch(prefetchProjects()).engine(engine).execute("prefetching"));
+            Assert.assertEquals(1, invocations.size());
+            Assert.assertTrue(invocations.get(0).contains("prefetch/web"));
+        } finally {
+            System.clearProperty("maven.repo.local");
+        }
+    }
+
+    /**
+     * runs maven for real against a file repository, with every repository mirrored to it: the build never reaches
+     * the network. The fixture plugin stands for go-offline, maven resolving the dependencies its goals require.
+     */
+    @Test
+    public void testPrefetchGoesOfflineAgainstAFileRepository() throws Exception {
+        File mavenHome = EmbeddedMvnEngine.findMavenHome();
+        Assume.assumeNotNull(mavenHome);
+        Reactor.copy("src/test/resources/offline", TARGET_DELIVERY + "/offline");
+        File remote = new File(TARGET_DELIVERY + "/offline/remote").getAbsoluteFile();
+        File greeting = new File(remote, "org/javen/remote/greeting/1.0");
+        createDirs(greeting.getPath());
+        Files.write(new File(greeting, "greeting-1.0.pom").toPath(), ("<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>org.javen.remote</groupId><artifactId>greeting</artifactId><version>1.0</version></project>").getBytes());
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(new File(greeting, "greeting-1.0.jar")))) {
+            jar.putNextEntry(new ZipEntry("greeting.txt"));
+            jar.write("hello".getBytes());
+        }
+        deployFixturePlugin(mavenHome, remote);
+        File settings = new File(TARGET_DELIVERY + "/offline/settings.xml").getAbsoluteFile();
+        Files.write(settings.toPath(), ("<settings><mirrors><mirror><id>javen-file-repository</id><mirrorOf>*</mirrorOf>"
+                + "<url>" + remote.toURI() + "</url></mirror></mirrors></settings>").getBytes());
+
+        File repository = new File(TARGET_DELIVERY + "/offline-repository").getAbsoluteFile();
+        System.setProperty("maven.repo.local", repository.getPath());
+        try {
+            List<String> invocations = Collections.synchronizedList(new ArrayList<>());
+            MvnEngine engine = request -> {
+                invocations.add(String.join(" ", request.getGoals()));
+                request.setUserSettingsFile(settings);
+                return mvn.FORKED.execute(request);
+            };
+            MvnProject project = mvn.project(TARGET_DELIVERY + "/offline");
+            File marker = DependencyPrefetch.markerFile(project);
+            Assert.assertTrue(mvn.prefetch(listOf(project)).engine(engine).goal(FIXTURE_PLUGIN + ":go-offline").execute("prefetching"));
+            Assert.assertEquals(1, invocations.size());
+            Assert.assertTrue(new File(repository, "org/javen/remote/greeting/1.0/greeting-1.0.jar").isFile());
+            Assert.assertTrue(marker.isFile());
+
+            // a clean keeps the marker, and the file repository is not needed anymore
+            delete(project.targetDir);
+            delete(remote.getPath());
+            invocations.clear();
+            MvnProject cleaned = mvn.project(TARGET_DELIVERY + "/offline");
+            Assert.assertTrue(mvn.prefetch(listOf(cleaned)).engine(engine).goal(FIXTURE_PLUGIN + ":go-offline").execute("prefetching"));
+            Assert.assertTrue(invocations.isEmpty());
+            Assert.assertTrue(cleaned.offline);
+            Result resolved = cleaned.executor().goals(FIXTURE_PLUGIN + ":resolve").engine(engine).run("resolving");
+            Assert.assertEquals(Status.OK, resolved.getStatus());
+            Assert.assertTrue(invocations.get(0).contains(" -o "));
+        } finally {
+            System.clearProperty("maven.repo.local");
+        }
+    }
+
+    private static final String FIXTURE_PLUGIN = "org.javen.test:javen-fixture-plugin:1.0";
+
+    /**
+     * deploys a maven plugin whose go-offline and resolve goals do nothing but require the resolution of the dependencies
+     */
+    private static void deployFixturePlugin(File mavenHome, File repository) throws Exception {
+        File sources = new File(TARGET_DELIVERY + "/fixture-plugin").getAbsoluteFile();
+        File mojo = new File(sources, "fixture/ResolveMojo.java");
+        createDirs(mojo.getParent());
+        Files.write(mojo.toPath(), ("package fixture;\n"
+                + "public class ResolveMojo extends org.apache.maven.plugin.AbstractMojo {\n"
+                + "    public void execute() {\n"
+                + "        getLog().info(\"dependencies resolved\");\n"
+                + "    }\n"
+                + "}\n").getBytes());
+        File[] pluginApi = new File(mavenHome, "lib").listFiles((dir, name) -> name.startsWith("maven-plugin-api-"));
+        Assert.assertTrue(pluginApi != null && pluginApi.length == 1);
+        Assert.assertEquals(0, javax.tools.ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-source", "8", "-target", "8", "-nowarn", "-cp", pluginApi[0].getPath(), mojo.getPath()));
+
+        StringBuilder mojos = new StringBuilder();
+        for (String goal : listOf("go-offline", "resolve")) {
+            mojos.append("<mojo><goal>").append(goal).append("</goal><requiresDependencyResolution>test</requiresDependencyResolution>")
+                    .append("<requiresProject>true</requiresProject><implementation>fixture.ResolveMojo</implementation>")
+                    .append("<language>java</language><instantiationStrategy>per-lookup</instantiationStrategy>")
+                    .append("<executionStrategy>once-per-session</executionStrategy><threadSafe>true</threadSafe><parameters/></mojo>");
+        }
+        File plugin = new File(repository, "org/javen/test/javen-fixture-plugin/1.0");
+        createDirs(plugin.getPath());
+        Files.write(new File(plugin, "javen-fixture-plugin-1.0.pom").toPath(), ("<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>org.javen.test</groupId><artifactId>javen-fixture-plugin</artifactId><version>1.0</version>"
+                + "<packaging>maven-plugin</packaging></project>").getBytes());
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(new File(plugin, "javen-fixture-plugin-1.0.jar")))) {
+            jar.putNextEntry(new ZipEntry("META-INF/maven/plugin.xml"));
+            jar.write(("<plugin><name>javen fixture</name><groupId>org.javen.test</groupId><artifactId>javen-fixture-plugin</artifactId>"
+                    + "<version>1.0</version><goalPrefix>javen-fixture</goalPrefix><mojos>" + mojos + "</mojos><dependencies/></plugin>").getBytes());
+            jar.putNextEntry(new ZipEntry("fixture/ResolveMojo.class"));
+            jar.write(Files.readAllBytes(new File(sources, "fixture/ResolveMojo.class").toPath()));
+        }
+    }
+
+    /**
+     * @return a copy of a scheduler test project under target, where its builds write their target directory and logs
+     */
+    private static String schedulerProject(String name) {
+        String copy = TARGET_DELIVERY + "/scheduler";
+        if (!new File(copy).isDirectory()) {
+            Reactor.copy("src/test/resources/scheduler", copy);
+        }
+        return copy + "/" + name;
+    }
+
+    private static List<MvnProject> prefetchProjects() {
+        return listOf(mvn.project(TARGET_DELIVERY + "/prefetch/core"), mvn.project(TARGET_DELIVERY + "/prefetch/service"),
+                mvn.project(TARGET_DELIVERY + "/prefetch/web"));
+    }
+
+    private static boolean isRunning(String pid) throws Exception {
+        File stat = new File("/proc/" + pid + "/stat");
+        if (!stat.exists()) {
+            return false;
+        }
+        String content = new String(Files.readAllBytes(stat.toPath()));
+        // a killed child waiting to be reaped is a zombie
+        return !content.substring(content.lastIndexOf(')') + 2).startsWith("Z");
+    }
+
+    @Test
+    public void testOutputCaptureKeepsTailAndCompressesLog() throws Exception {
+        File logFile = new File(TARGET_DELIVERY + "/logs/core-building.log.gz");
+        List<String> seen = new ArrayList<>();
+        OutputCapture capture = new OutputCapture(logFile, 3, seen::add);
+        for (int i = 1; i <= 20000; i++) {
+            capture.consumeLine("line " + i);
+        }
+        capture.close();
+        Assert.assertEquals(20000, capture.lines());
+        Assert.assertEquals(20000, seen.size());
+        Assert.assertEquals(Arrays.asList("line 19998", "line 19999", "line 20000"), capture.tail());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(logFile)), StandardCharsets.UTF_8))) {
+            List<String> logged = reader.lines().collect(Collectors.toList());
+            Assert.assertEquals(20000, logged.size());
+            Assert.assertEquals("line 1", logged.get(0));
+        }
+        Assert.assertFalse(new File("target/javen-logs/.partial/core-building.log.gz").exists());
+    }
+
+    @Test
+    public void testOutputCaptureKeepsPumpingWhenTheLogFails() throws Exception {
+        MvnProject project = mvn.project(schedulerProject("core"));
+        File logFile = OutputCapture.logFile(project, "core : failing log");
+        Assert.assertEquals(new File(project.targetDir, "javen-logs").getAbsoluteFile(), logFile.getAbsoluteFile().getParentFile());
+        File partial = new File("target/javen-logs/.partial", logFile.getName());
+        createDirs(partial.getPath());
+        try {
+            List<String> seen = new ArrayList<>();
+            OutputCapture capture = new OutputCapture(logFile, 2, seen::add);
+            for (int i = 1; i <= 3; i++) {
+                capture.consumeLine("line " + i);
+            }
+            capture.close();
+            Assert.assertEquals(3, capture.lines());
+            Assert.assertEquals(3, seen.size());
+            Assert.assertEquals(Arrays.asList("line 2", "line 3"), capture.tail());
+            Assert.assertFalse(logFile.exists());
+        } finally {
+            Files.delete(partial.toPath());
+        }
+    }
+
+    @Test
+    public void testCopyEmitsFlightRecorderEvent() throws Exception {
+        Path dump = new File(TARGET_DELIVERY + ".jfr").toPath();
+        CopyOperation copy = prepareCopy("src/test/resources/copy/copyDir", TARGET_DELIVERY);
+        try (Recording recording = new Recording()) {
+            recording.enable("org.javen.Copy");
+            recording.start();
+            Assert.assertTrue(copy.execute());
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        Assert.assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        Assert.assertEquals("src/test/resources/copy/copyDir", event.getString("path"));
+        Assert.assertEquals(copy.files(), event.getLong("files"));
+        Assert.assertTrue(event.getBoolean("success"));
+    }
+
+    private static MvnEngine recordingEngine(List<String> invocations, String failingGoal) {
+        return request -> {
+            String commandLine = String.join(" ", request.getGoals()).trim();
+            invocations.add(commandLine);
+            int exitCode = commandLine.contains(failingGoal) ? 1 : 0;
+            return new InvocationResult() {
+                @Override
+                public CommandLineException getExecutionException() {
+                    return null;
+                }
+
+                @Override
+                public int getExitCode() {
+                    return exitCode;
+                }
+            };
+        };
+    }
+
+
     @After
     public void clean(){
         delete(TARGET_DELIVERY);